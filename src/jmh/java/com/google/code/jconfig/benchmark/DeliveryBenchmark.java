@@ -0,0 +1,89 @@
+/*
+ * @(#)DeliveryBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.rits.cloning.Cloner;
+
+/**
+ * <p>
+ *    Measures handing a changed configuration to its listeners: a deep
+ *    clone for each listener, as done for mutable plugins, against sharing
+ *    the same instance, as done for immutable ones.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.util=ALL-UNNAMED", "--add-opens", "java.base/java.lang=ALL-UNNAMED"})
+public class DeliveryBenchmark {
+
+	@Param({"5", "50", "500"})
+	private int properties;
+
+	@Param({"16", "256"})
+	private int valueSize;
+
+	@Param({"1", "8"})
+	private int listeners;
+
+	private Cloner cloner;
+	private BasicConfiguration configuration;
+
+	@Setup
+	public void setUp() {
+		cloner = new Cloner();
+		configuration = new BasicConfiguration(SyntheticConfiguration.newProperties(properties, valueSize));
+	}
+
+	@Benchmark
+	public void deepClone(Blackhole blackhole) {
+		for(int listener = 0; listener < listeners; listener++) {
+			blackhole.consume(cloner.deepClone(configuration));
+		}
+	}
+
+	@Benchmark
+	public void shared(Blackhole blackhole) {
+		for(int listener = 0; listener < listeners; listener++) {
+			blackhole.consume(configuration);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * @(#)DiffBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.google.code.jconfig.model.ConfigurationInfo;
+import com.google.code.jconfig.model.ConfigurationSnapshot;
+
+/**
+ * <p>
+ *    Measures the reload step comparing the configuration just read with
+ *    the current one and publishing the new snapshot.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	private int ids;
+
+	@Param({"0", "10", "100"})
+	private int changedPercent;
+
+	private ConfigurationSnapshot currentSnapshot;
+	private ConfigurationInfo newConfigurationInfo;
+
+	@Setup
+	public void setUp() {
+		BasicConfiguration configuration = new BasicConfiguration(SyntheticConfiguration.newProperties(5, 16));
+		ConfigurationInfo currentConfigurationInfo = new ConfigurationInfo();
+		newConfigurationInfo = new ConfigurationInfo();
+		int changed = ids * changedPercent / 100;
+		for(int id = 0; id < ids; id++) {
+			String key = SyntheticConfiguration.id(id);
+			currentConfigurationInfo.addConfigurationDetail(key, SyntheticConfiguration.PLUGIN, configuration, id);
+			newConfigurationInfo.addConfigurationDetail(key, SyntheticConfiguration.PLUGIN, configuration, (id < changed)? -id - 1 : id);
+		}
+		currentSnapshot = new ConfigurationSnapshot(currentConfigurationInfo);
+	}
+
+	@Benchmark
+	public Map<String, Object> getChanges() {
+		return currentSnapshot.getChanges(newConfigurationInfo);
+	}
+
+	@Benchmark
+	public ConfigurationSnapshot newSnapshot() {
+		return new ConfigurationSnapshot(newConfigurationInfo);
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * @(#)LargeConfigurationBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+
+/**
+ * <p>
+ *    Measures looking up the properties of a large {@link BasicConfiguration}
+ *    in random order, against the same lookups on a {@link HashMap}, and
+ *    reading the properties under a key prefix, against scanning all of
+ *    them.
+ * </p>
+ *
+ * <p>
+ *    Building the configuration allocates little besides what it retains:
+ *    run with <em>-prof gc</em>, the <em>gc.alloc.rate.norm</em> of
+ *    {@link #build()} and {@link #hashMapCopy()} divided by the number of
+ *    properties is the heap each property costs, keys and values aside.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeConfigurationBenchmark {
+
+	@Param({"1000", "200000"})
+	private int properties;
+
+	private BasicConfiguration configuration;
+	private Map<String, String> map;
+	private String[] keys;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		map = new HashMap<String, String>(SyntheticConfiguration.newProperties(properties, 16));
+		configuration = new BasicConfiguration(map);
+		List<String> shuffled = new ArrayList<String>(map.keySet());
+		Collections.shuffle(shuffled, new Random(1));
+		keys = shuffled.toArray(new String[shuffled.size()]);
+	}
+
+	@Benchmark
+	public String getProperty() {
+		return configuration.getProperty(nextKey());
+	}
+
+	@Benchmark
+	public String hashMapGet() {
+		return map.get(nextKey());
+	}
+
+	@Benchmark
+	public BasicConfiguration build() {
+		return new BasicConfiguration(map);
+	}
+
+	@Benchmark
+	public Map<String, String> hashMapCopy() {
+		return new HashMap<String, String>(map);
+	}
+
+	@Benchmark
+	public int prefixView() {
+		int length = 0;
+		for (String aValue : configuration.getProperties("key-123").values()) {
+			length += aValue.length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int prefixScan() {
+		int length = 0;
+		for (Map.Entry<String, String> anEntry : configuration.getProperties().entrySet()) {
+			if(anEntry.getKey().startsWith("key-123")) {
+				length += anEntry.getValue().length();
+			}
+		}
+		return length;
+	}
+
+	private String nextKey() {
+		if(++next == keys.length) {
+			next = 0;
+		}
+		return keys[next];
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * @(#)NodeQueryBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.reader.hierarchical.NodeQuery;
+
+/**
+ * <p>
+ *    Measures finding the last property node by its key with a
+ *    {@link NodeQuery}, against walking the children by hand.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeQueryBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	private int properties;
+
+	private IHierarchicalReader node;
+	private String key;
+	private NodeQuery query;
+
+	@Setup
+	public void setUp() {
+		node = SyntheticConfiguration.newConfigurationNode(SyntheticConfiguration.id(0), properties, 16);
+		key = "key-" + (properties - 1);
+		query = NodeQuery.compile("property[@key='" + key + "']");
+	}
+
+	@Benchmark
+	public String query() {
+		return query.selectFirst(node).getAttributeValue("value");
+	}
+
+	@Benchmark
+	public String scan() {
+		for (IHierarchicalReader aChild : node.getChildren()) {
+			if( "property".equals(aChild.getNodeName()) && key.equals(aChild.getAttributeValue("key")) ) {
+				return aChild.getAttributeValue("value");
+			}
+		}
+		return null;
+	}
+}
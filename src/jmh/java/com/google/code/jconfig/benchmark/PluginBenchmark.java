@@ -0,0 +1,76 @@
+/*
+ * @(#)PluginBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.reader.plugins.PropertyConfigurationPlugin;
+
+/**
+ * <p>
+ *    Measures building a configuration with
+ *    {@link PropertyConfigurationPlugin#readConfiguration(IHierarchicalReader)}.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginBenchmark {
+
+	@Param({"5", "50", "500"})
+	private int properties;
+
+	@Param({"16", "256"})
+	private int valueSize;
+
+	private PropertyConfigurationPlugin plugin;
+	private IHierarchicalReader node;
+
+	@Setup
+	public void setUp() {
+		plugin = new PropertyConfigurationPlugin();
+		node = SyntheticConfiguration.newConfigurationNode(SyntheticConfiguration.id(0), properties, valueSize);
+	}
+
+	@Benchmark
+	public BasicConfiguration readConfiguration() {
+		return plugin.readConfiguration(node);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * @(#)PropertyAccessBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+
+/**
+ * <p>
+ *    Measures reading typed properties of a {@link BasicConfiguration}, with
+ *    the typed accessors and by parsing the raw value.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessBenchmark {
+
+	private BasicConfiguration configuration;
+
+	@Setup
+	public void setUp() {
+		Map<String, String> properties = SyntheticConfiguration.newProperties(50, 16);
+		properties.put("port", "8080");
+		properties.put("timeout", "30");
+		configuration = new BasicConfiguration(new HashMap<String, String>(properties));
+	}
+
+	@Benchmark
+	public long typedAccessors() {
+		return configuration.getInt("port") + configuration.getDuration("timeout", TimeUnit.MILLISECONDS);
+	}
+
+	@Benchmark
+	public long parsedProperties() {
+		return Integer.parseInt(configuration.getProperty("port")) + Long.parseLong(configuration.getProperty("timeout"));
+	}
+}
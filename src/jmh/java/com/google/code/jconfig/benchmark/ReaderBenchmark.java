@@ -0,0 +1,104 @@
+/*
+ * @(#)ReaderBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.factory.ConfigurationReaderFactory;
+import com.google.code.jconfig.model.ConfigurationInfo;
+import com.google.code.jconfig.reader.ConfigurationReader;
+import com.google.code.jconfig.reader.DependencyGraph;
+
+/**
+ * <p>
+ *    Measures reading a configuration tree: a full parse with
+ *    {@link ConfigurationReader#readConfiguration(String)}, and a reload of
+ *    unchanged files through the dependency graph.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int ids;
+
+	@Param({"5", "50"})
+	private int properties;
+
+	@Param({"0", "4"})
+	private int importDepth;
+
+	@Param({"16", "256"})
+	private int valueSize;
+
+	private File directory;
+	private String rootPath;
+	private ConfigurationReader reader;
+	private DependencyGraph graph;
+
+	@Setup
+	public void setUp() throws IOException, ConfigurationParsingException {
+		directory = Files.createTempDirectory("jconfig-bench").toFile();
+		rootPath = SyntheticConfiguration.write(directory, ids, properties, importDepth, valueSize, 0);
+		reader = new ConfigurationReader();
+		graph = new DependencyGraph();
+		ConfigurationReaderFactory.read(rootPath, graph);
+	}
+
+	@TearDown
+	public void tearDown() {
+		SyntheticConfiguration.delete(directory);
+	}
+
+	@Benchmark
+	public ConfigurationInfo readConfiguration() throws ConfigurationParsingException {
+		return reader.readConfiguration(rootPath);
+	}
+
+	@Benchmark
+	public ConfigurationInfo readUnchanged() throws ConfigurationParsingException {
+		return ConfigurationReaderFactory.read(rootPath, graph);
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * @(#)SyntheticConfiguration.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReaderBuilder;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.reader.plugins.PropertyConfigurationPlugin;
+
+/**
+ * <p>
+ *    Builds synthetic configurations for the benchmarks: files on disk,
+ *    hierarchical nodes and property maps of the requested size.
+ * </p>
+ *
+ * <p>
+ *    A configuration tree is a chain of <em>importDepth + 1</em> files, each
+ *    importing the next one, with the configuration ids spread evenly
+ *    between them. Every configuration is read by
+ *    {@link PropertyConfigurationPlugin}.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class SyntheticConfiguration {
+
+	public static final String PLUGIN = PropertyConfigurationPlugin.class.getName();
+
+	/**
+	 * <p>
+	 *    Write a configuration tree in <em>directory</em>.
+	 * </p>
+	 *
+	 * @param directory the directory of the files
+	 * @param ids the number of configuration ids
+	 * @param properties the number of properties of each configuration
+	 * @param importDepth the number of nested imports
+	 * @param valueSize the length of each property value
+	 * @param version a number making the values differ between trees
+	 * @return the absolute path of the root file
+	 * @throws IOException
+	 */
+	public static String write(File directory, int ids, int properties, int importDepth, int valueSize, int version) throws IOException {
+		directory.mkdirs();
+		for(int file = 0; file <= importDepth; file++) {
+			Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, fileName(file))), "UTF-8");
+			try {
+				writer.write("<configurations>\n");
+				if(file < importDepth) {
+					writer.write("\t<import file=\"" + fileName(file + 1) + "\" />\n");
+				}
+				for(int id = file; id < ids; id += importDepth + 1) {
+					writer.write("\t<configuration id=\"" + id(id) + "\" plugin=\"" + PLUGIN + "\">\n");
+					for(int property = 0; property < properties; property++) {
+						writer.write("\t\t<property key=\"" + key(property) + "\" value=\"" + value(version, property, valueSize) + "\" />\n");
+					}
+					writer.write("\t</configuration>\n");
+				}
+				writer.write("</configurations>\n");
+			} finally {
+				writer.close();
+			}
+		}
+
+		return new File(directory, fileName(0)).getAbsolutePath();
+	}
+
+	/**
+	 * <p>
+	 *    Delete a directory written by
+	 *    {@link #write(File, int, int, int, int, int)}.
+	 * </p>
+	 *
+	 * @param directory the directory of the files
+	 */
+	public static void delete(File directory) {
+		File[] files = directory.listFiles();
+		if(files != null) {
+			for (File aFile : files) {
+				aFile.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * <p>
+	 *    Build the node of a configuration, as the reader would.
+	 * </p>
+	 *
+	 * @param id the configuration id
+	 * @param properties the number of properties
+	 * @param valueSize the length of each property value
+	 * @return the configuration node
+	 */
+	public static IHierarchicalReader newConfigurationNode(String id, int properties, int valueSize) {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		builder.startNode("configuration");
+		builder.addAttribute("id", id);
+		builder.addAttribute("plugin", PLUGIN);
+		for(int property = 0; property < properties; property++) {
+			builder.startNode("property");
+			builder.addAttribute("key", key(property));
+			builder.addAttribute("value", value(0, property, valueSize));
+			builder.endNode();
+		}
+
+		return builder.endNode();
+	}
+
+	/**
+	 * <p>
+	 *    Build a property map.
+	 * </p>
+	 *
+	 * @param properties the number of properties
+	 * @param valueSize the length of each property value
+	 * @return the property map
+	 */
+	public static Map<String, String> newProperties(int properties, int valueSize) {
+		Map<String, String> map = new HashMap<String, String>();
+		for(int property = 0; property < properties; property++) {
+			map.put(key(property), value(0, property, valueSize));
+		}
+
+		return map;
+	}
+
+	/**
+	 * @param id the index of a configuration
+	 * @return the id of the configuration
+	 */
+	public static String id(int id) {
+		return "conf-" + id;
+	}
+
+	private static String fileName(int file) {
+		return "configuration-" + file + ".xml";
+	}
+
+	private static String key(int property) {
+		return "key-" + property;
+	}
+
+	private static String value(int version, int property, int valueSize) {
+		StringBuilder value = new StringBuilder(valueSize);
+		value.append(version).append('-').append(property).append('-');
+		while(value.length() < valueSize) {
+			value.append('x');
+		}
+		value.setLength(valueSize);
+		return value.toString();
+	}
+}
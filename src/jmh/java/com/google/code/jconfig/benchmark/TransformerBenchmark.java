@@ -0,0 +1,88 @@
+/*
+ * @(#)TransformerBenchmark.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.jconfig.exception.NodeTransformationException;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.transformer.NodeTransformer;
+
+/**
+ * <p>
+ *    Measures {@link NodeTransformer#doTransformation(IHierarchicalReader)},
+ *    and the same transformation streamed to a reused buffer.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerBenchmark {
+
+	@Param({"5", "50", "500"})
+	private int properties;
+
+	@Param({"16", "256"})
+	private int valueSize;
+
+	@Param({"false", "true"})
+	private boolean prettyFormat;
+
+	private NodeTransformer transformer;
+	private IHierarchicalReader node;
+	private StringBuilder buffer = new StringBuilder();
+
+	@Setup
+	public void setUp() {
+		transformer = NodeTransformer.newInstance();
+		transformer.prettyFormat(prettyFormat);
+		node = SyntheticConfiguration.newConfigurationNode(SyntheticConfiguration.id(0), properties, valueSize);
+	}
+
+	@Benchmark
+	public String doTransformation() throws NodeTransformationException {
+		return transformer.doTransformation(node);
+	}
+
+	@Benchmark
+	public int streamTransformation() throws NodeTransformationException {
+		buffer.setLength(0);
+		transformer.doTransformation(node, buffer);
+		return buffer.length();
+	}
+}
@@ -20,21 +20,33 @@
 
 package com.google.code.jconfig;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.JavaVersion;
 import org.apache.commons.lang3.SystemUtils;
-import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.log4j.Logger;
 
 import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.factory.ConfigurationPluginFactory;
 import com.google.code.jconfig.factory.ConfigurationReaderFactory;
 import com.google.code.jconfig.helper.WatchdogService;
 import com.google.code.jconfig.listener.IConfigurationChangeListener;
+import com.google.code.jconfig.listener.ListenerDispatchService;
+import com.google.code.jconfig.listener.ListenerRegistry;
 import com.google.code.jconfig.model.ConfigurationInfo;
+import com.google.code.jconfig.model.ConfigurationSnapshot;
+import com.google.code.jconfig.reader.DependencyGraph;
+import com.google.code.jconfig.reader.plugins.PluginExecutionService;
+import com.google.code.jconfig.statistics.IReloadEvent;
+import com.google.code.jconfig.statistics.ReloadEvents;
+import com.google.code.jconfig.statistics.ReloadStatistics;
+import com.google.code.jconfig.statistics.StatisticsService;
 import com.rits.cloning.Cloner;
 
 /**
@@ -55,23 +67,25 @@ import com.rits.cloning.Cloner;
 public class ConfigurationManager {
 
 	private String filepath;
-	private ConfigurationInfo currentConfigurationInfo;
-	private Map<String, IConfigurationChangeListener> activeListeners;
+	private volatile ConfigurationSnapshot currentSnapshot;
+	private DependencyGraph dependencyGraph;
+	private File snapshotFile;
 	
 	private long delay;
-	private static ConfigurationManager instance;
+	private static File snapshotDirectory;
+	private static volatile ConfigurationManager instance;
+	private static final ListenerRegistry registry = new ListenerRegistry();
 	private static Cloner cloner = new Cloner();
 	private static final Logger logger = Logger.getLogger(ConfigurationManager.class);
 	private static final Executor poolExecutor = Executors.newSingleThreadExecutor();
-	private static final Executor listenerPoolExecutor = Executors.newCachedThreadPool();
 	
 	private ConfigurationManager() { }
 	
 	private ConfigurationManager(Map<String, IConfigurationChangeListener> listeners, String filepath) {
 		logger.debug("Running on machine with Java version: " + SystemUtils.JAVA_RUNTIME_VERSION);
-		if( !SystemUtils.isJavaVersionAtLeast(JavaVersion.JAVA_1_5) ) {
-			logger.fatal("Current Java version: " + SystemUtils.JAVA_RUNTIME_VERSION + " - NEEDED " + JavaVersion.JAVA_1_5 + " or above.");
-			throw new RuntimeException("You must have at leat Java 1.5 using this library.");
+		if( !SystemUtils.isJavaVersionAtLeast(JavaVersion.JAVA_1_8) ) {
+			logger.fatal("Current Java version: " + SystemUtils.JAVA_RUNTIME_VERSION + " - NEEDED " + JavaVersion.JAVA_1_8 + " or above.");
+			throw new RuntimeException("You must have at leat Java 1.8 using this library.");
 		}
 		
 		logger.info("******* ConfigurationManager initialization *******");
@@ -80,8 +94,43 @@ public class ConfigurationManager {
 		logger.info("***************************************************");
 		
 		this.filepath = filepath;
-		activeListeners = listeners;
-		currentConfigurationInfo = new ConfigurationInfo();
+		if(listeners != null) {
+			for (Entry<String, IConfigurationChangeListener> aListenerEntry : listeners.entrySet()) {
+				registry.register(aListenerEntry.getKey(), aListenerEntry.getValue());
+			}
+		}
+		currentSnapshot = ConfigurationSnapshot.EMPTY;
+		dependencyGraph = new DependencyGraph();
+		if(snapshotDirectory != null) {
+			File configurationFile = new File(filepath);
+			snapshotFile = new File(snapshotDirectory, configurationFile.getName() + "-" + Integer.toHexString(configurationFile.getAbsolutePath().hashCode()) + ".snapshot");
+			dependencyGraph.setRetainingFragments(true);
+			logger.info(" -> snapshot: " + snapshotFile);
+		}
+		StatisticsService.registerMBean();
+	}
+	
+	/**
+	 * <p>
+	 *    Keep a binary snapshot of the parsed configuration files in
+	 *    <em>directory</em>, for a fast start. It can be the directory of the
+	 *    configuration files or a cache directory; <em>null</em>, the
+	 *    default, disables the snapshot. It must be set before configuring
+	 *    the manager.
+	 * </p>
+	 * 
+	 * <p>
+	 *    At start, the configurations of the files unchanged since the
+	 *    snapshot are loaded from it and notified to the listeners right
+	 *    away, without parsing. Then all the files are parsed as usual and
+	 *    only the differences are notified. The snapshot is written again
+	 *    after every successful reload.
+	 * </p>
+	 * 
+	 * @param directory the directory of the snapshot, or <em>null</em>
+	 */
+	public static synchronized void setSnapshotDirectory(File directory) {
+		snapshotDirectory = directory;
 	}
 	
 	/**
@@ -97,6 +146,7 @@ public class ConfigurationManager {
 	public static synchronized void configure(Map<String, IConfigurationChangeListener> listeners, String filepath) {
 		if(instance == null) {
 			instance = new ConfigurationManager(listeners, filepath);
+			instance.restoreSnapshot();
 			instance.doConfigure();
 		}
 	}
@@ -128,10 +178,111 @@ public class ConfigurationManager {
 		if(instance == null) {
 			instance = new ConfigurationManager(listeners, filepath);
 			instance.delay = delay;
+			instance.restoreSnapshot();
 			instance.doConfigure();
 		}
 	}
 	
+	/**
+	 * <p>
+	 *    Subscribe <em>listener</em> to the configurations whose id matches
+	 *    <em>idPattern</em>: a configuration id, or a prefix followed by
+	 *    {@link ListenerRegistry#WILDCARD}. Any number of listeners can
+	 *    subscribe to the same id.
+	 * </p>
+	 * 
+	 * <p>
+	 *    It can be called at any time. If the manager is already configured,
+	 *    the listener is notified of the current matching configurations.
+	 * </p>
+	 * 
+	 * @param idPattern a configuration id or a prefix pattern
+	 * @param listener the listener
+	 */
+	public static void addListener(final String idPattern, final IConfigurationChangeListener listener) {
+		registry.register(idPattern, listener);
+		final ConfigurationManager manager = instance;
+		if(manager != null) {
+			/* run on the reload thread, so it can't be delivered after a newer configuration */
+			Runnable runnable = new Runnable() {
+				public void run() {
+					ConfigurationSnapshot snapshot = manager.currentSnapshot;
+					for (Entry<String, Object> aConfEntry : snapshot.getConfigurationMap().entrySet()) {
+						if( ListenerRegistry.matches(idPattern, aConfEntry.getKey()) ) {
+							notifyListener(listener, aConfEntry.getKey(), aConfEntry.getValue(), snapshot.getPluginMap());
+						}
+					}
+				}
+			};
+			
+			poolExecutor.execute(runnable);
+		}
+	}
+	
+	/**
+	 * <p>
+	 *    Remove the subscription of <em>listener</em> to <em>idPattern</em>.
+	 * </p>
+	 * 
+	 * @param idPattern the pattern used for subscribing the listener
+	 * @param listener the listener
+	 * @return <em>true</em> if the subscription existed
+	 */
+	public static boolean removeListener(String idPattern, IConfigurationChangeListener listener) {
+		return registry.unregister(idPattern, listener);
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the configuration associated to <em>id</em> in the current
+	 *    configuration, or <em>null</em> if there's no such configuration or
+	 *    the manager hasn't been configured yet.
+	 * </p>
+	 * 
+	 * <p>
+	 *    This method takes no lock and allocates nothing, so it's suitable for
+	 *    the request path. The instance returned is shared with all the
+	 *    callers and must not be modified.
+	 * </p>
+	 * 
+	 * @param id the configuration identifier
+	 * @param type the expected type of the configuration
+	 * @return the configuration or <em>null</em>
+	 * @throws ClassCastException if the configuration is not of type
+	 *                            <em>type</em>
+	 */
+	public static <T> T get(String id, Class<T> type) {
+		ConfigurationManager manager = instance;
+		return ( (manager != null)? manager.currentSnapshot.get(id, type) : null );
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the current configuration snapshot. Use it to read several
+	 *    configurations consistently, since a reload may be published between
+	 *    two calls to {@link #get(String, Class)}.
+	 * </p>
+	 * 
+	 * @return the current snapshot, {@link ConfigurationSnapshot#EMPTY} if
+	 *         the manager hasn't been configured yet
+	 */
+	public static ConfigurationSnapshot getSnapshot() {
+		ConfigurationManager manager = instance;
+		return ( (manager != null)? manager.currentSnapshot : ConfigurationSnapshot.EMPTY );
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the statistics of the reloads done so far. They are also
+	 *    published through JMX as {@link StatisticsService#OBJECT_NAME}.
+	 * </p>
+	 * 
+	 * @return the reload statistics
+	 */
+	public static ReloadStatistics getStatistics() {
+		return StatisticsService.getReloadStatistics();
+	}
+	
 	/**
 	 * <p>
 	 *    Release all resources allocated by this manager.
@@ -140,6 +291,57 @@ public class ConfigurationManager {
 	public static void shutdown() {
 		logger.info("Shutdown resources");
 		WatchdogService.shutdown();
+		ListenerDispatchService.shutdown();
+		PluginExecutionService.shutdown();
+		StatisticsService.unregisterMBean();
+	}
+	
+	/**
+	 * <p>
+	 *    Load the configurations from the snapshot, if there's one, and notify
+	 *    them. Runs before the first reload, which then notifies only what
+	 *    the snapshot got wrong.
+	 * </p>
+	 */
+	private void restoreSnapshot() {
+		if( (snapshotFile == null) || !snapshotFile.isFile() ) {
+			return;
+		}
+		
+		Runnable runnable = new Runnable() {
+			public void run() {
+				try {
+					long startTime = System.nanoTime();
+					ConfigurationInfo snapshotConfigurationInfo = ConfigurationReaderFactory.readSnapshot(snapshotFile, filepath, dependencyGraph);
+					if(snapshotConfigurationInfo != null) {
+						Map<String, Object> confToBeNotified = currentSnapshot.getChanges(snapshotConfigurationInfo);
+						ConfigurationSnapshot newSnapshot = new ConfigurationSnapshot(snapshotConfigurationInfo);
+						currentSnapshot = newSnapshot;
+						snapshotConfigurationInfo.clear();
+						notifyListeners(confToBeNotified, newSnapshot.getPluginMap());
+						logger.info("Loaded " + confToBeNotified.size() + " configurations from snapshot in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+					}
+				} catch (Exception e) {
+					logger.warn("Unable to load the snapshot <" + snapshotFile + ">: " + e.getMessage());
+				}
+			}
+		};
+		
+		poolExecutor.execute(runnable);
+	}
+	
+	private void writeSnapshot(ConfigurationSnapshot snapshot) {
+		if(snapshotFile == null) {
+			return;
+		}
+		
+		try {
+			if( !ConfigurationReaderFactory.writeSnapshot(snapshotFile, filepath, snapshot.getConfFileList(), dependencyGraph) ) {
+				logger.warn("Incomplete dependency graph, snapshot not written.");
+			}
+		} catch (IOException e) {
+			logger.warn("Unable to write the snapshot <" + snapshotFile + ">: " + e.getMessage());
+		}
 	}
 	
 	/**
@@ -154,31 +356,34 @@ public class ConfigurationManager {
 	public void doConfigure() {
 		Runnable runnable = new Runnable() {
 			public void run() {
+				ReloadStatistics statistics = StatisticsService.getReloadStatistics();
+				long startTime = System.nanoTime();
 				try {
-					ConfigurationInfo newConfigurationInfo = ConfigurationReaderFactory.read(filepath);
-					Map<String, Object> confToBeNotified = new HashMap<String, Object>();
-					Map<String, Object> curConfMap = currentConfigurationInfo.getConfigurationMap();
+					ConfigurationInfo newConfigurationInfo = ConfigurationReaderFactory.read(filepath, dependencyGraph);
 					if(newConfigurationInfo != null) {
-						for (Entry<String, Object> aNewConfEntry : newConfigurationInfo.getConfigurationMap().entrySet()) {
-							String key = aNewConfEntry.getKey();
-							Object theConf = aNewConfEntry.getValue();
-							/* only for new conf or changed configurations will be send a notify */
-							if( ( curConfMap.containsKey(key) && !EqualsBuilder.reflectionEquals(theConf, curConfMap.get(key), false) ) || !curConfMap.containsKey(key) ) {
-								confToBeNotified.put(key, theConf);
-							}
-						}
+						/* only for new conf or changed configurations will be send a notify: a configuration is changed if its xml fragment is */
+						long diffStartTime = System.nanoTime();
+						IReloadEvent diffEvent = ReloadEvents.diff(filepath);
+						Map<String, Object> confToBeNotified = currentSnapshot.getChanges(newConfigurationInfo);
+						diffEvent.commit();
+						statistics.diffed(System.nanoTime() - diffStartTime);
 						
-						/* clear the old infos, put in the new ones cloned then release resources of the reader */
-						currentConfigurationInfo.clear();
-						currentConfigurationInfo.add(newConfigurationInfo);
+						/* publish the new infos in a single step then release resources of the reader */
+						ConfigurationSnapshot newSnapshot = new ConfigurationSnapshot(newConfigurationInfo);
+						currentSnapshot = newSnapshot;
 						newConfigurationInfo.clear();
+						dependencyGraph.retainAll(newSnapshot.getConfFileList());
+						statistics.retainFiles(newSnapshot.getConfFileList());
 						/* notify changes to listener */
-						notifyListeners(confToBeNotified);
+						notifyListeners(confToBeNotified, newSnapshot.getPluginMap());
+						statistics.reloaded(System.nanoTime() - startTime, confToBeNotified.size());
+						writeSnapshot(newSnapshot);
 						/* start watch on files */
-						WatchdogService.watch(instance, currentConfigurationInfo.getConfFileList(), delay);
+						WatchdogService.watch(instance, newSnapshot.getConfFileList(), delay);
 					}
 				} catch (ConfigurationParsingException e) {
 					logger.error(e.getMessage(), e);
+					statistics.parseFailed();
 					WatchdogService.watch(instance, e.getFileParsedList(), delay);
 				}
 			}
@@ -187,30 +392,47 @@ public class ConfigurationManager {
 		poolExecutor.execute(runnable);
 	}
 	
-	private void notifyListeners(Map<String, Object> confToBeNotified) {
+	private void notifyListeners(Map<String, Object> confToBeNotified, Map<String, String> pluginMap) {
 		logger.debug("Notify listeners about configuration changes");
 		if(confToBeNotified != null) {
 			for (Entry<String, Object> aConfEntry : confToBeNotified.entrySet()) {
-				final String key = aConfEntry.getKey();
-				final Object confData = aConfEntry.getValue();
-				final IConfigurationChangeListener listener = activeListeners.get(key);
-				if( (listener != null) && (confData != null) ) {
-					try {
-						logger.debug("Notifying listener <" + listener.getClass().getName() + "> for configuratio id <" + key + ">");
-						Runnable runnable = new Runnable() {
-							public void run() {
-								listener.loadConfiguration(cloner.deepClone(confData));
-							}
-						};
-						
-						listenerPoolExecutor.execute(runnable);
-						
-					} catch (Throwable e) {
-						// for not terminating the watchdog thread on configuration changes.
-						logger.error("Received an uncaught exception", e);
-					}
+				String key = aConfEntry.getKey();
+				for (IConfigurationChangeListener aListener : registry.getListeners(key)) {
+					notifyListener(aListener, key, aConfEntry.getValue(), pluginMap);
 				}
 			}
 		}
 	}
+	
+	private static void notifyListener(final IConfigurationChangeListener listener, final String key, final Object confData, Map<String, String> pluginMap) {
+		if(confData == null) {
+			return;
+		}
+		
+		/* configurations of immutable plugins are shared, the others are cloned for each listener */
+		final String pluginClass = pluginMap.get(key);
+		final boolean immutable = ConfigurationPluginFactory.isImmutable(pluginClass);
+		try {
+			logger.debug("Notifying listener <" + listener.getClass().getName() + "> for configuratio id <" + key + ">");
+			Runnable runnable = new Runnable() {
+				public void run() {
+					Object configuration = confData;
+					if(!immutable) {
+						long startTime = System.nanoTime();
+						IReloadEvent cloneEvent = ReloadEvents.clone(key, pluginClass);
+						configuration = cloner.deepClone(confData);
+						cloneEvent.commit();
+						StatisticsService.getReloadStatistics().cloned(System.nanoTime() - startTime);
+					}
+					listener.loadConfiguration(configuration);
+				}
+			};
+			
+			ListenerDispatchService.dispatch(key, listener, runnable);
+			
+		} catch (Throwable e) {
+			// for not terminating the watchdog thread on configuration changes.
+			logger.error("Received an uncaught exception", e);
+		}
+	}
 }
@@ -0,0 +1,53 @@
+/*
+ * @(#)ThreadSafe.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.code.jconfig.reader.plugins.IConfigurationPlugin;
+import com.google.code.jconfig.reader.plugins.PluginExecutionService;
+
+/**
+ * <p>
+ *    Marking an implementation of {@link IConfigurationPlugin} with this
+ *    annotation declares that its
+ *    {@link IConfigurationPlugin#readConfiguration(com.google.code.jconfig.reader.hierarchical.IHierarchicalReader)}
+ *    can be invoked by several threads at the same time, on the same
+ *    instance if it's also {@link Cacheable}.
+ * </p>
+ *
+ * <p>
+ *    The configurations of a plugin are built by the
+ *    {@link PluginExecutionService} one at a time, unless the plugin is
+ *    thread-safe. Configurations of different plugins are always built in
+ *    parallel.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ThreadSafe {
+
+}
@@ -31,6 +31,14 @@ public class ConfigurationParsingException extends SAXException {
 		super(message);
 	}
 	
+	/**
+	 * @param message
+	 * @param exception the cause
+	 */
+	public ConfigurationParsingException(String message, Exception exception) {
+		super(message, exception);
+	}
+	
 	public ConfigurationParsingException(String message, Collection<String> fileParsedList) {
 		super(message);
 		this.fileParsedList = fileParsedList;
@@ -0,0 +1,67 @@
+package com.google.code.jconfig.exception;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *    Thrown when a configuration file imports itself, directly or through
+ *    other files.
+ * </p>
+ *
+ * <p>
+ *    The files of the cycle are reported as parsed, so a change to any of
+ *    them triggers a new read.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ImportCycleException extends ConfigurationParsingException {
+
+	private static final long serialVersionUID = -2875216071931844217L;
+	private List<String> cyclePath;
+
+	/**
+	 * @param cyclePath the files of the cycle, in import order, starting
+	 *                  and ending with the same file
+	 */
+	public ImportCycleException(List<String> cyclePath) {
+		super(messageOf(cyclePath), new ArrayList<String>(cyclePath));
+		this.cyclePath = Collections.unmodifiableList(new ArrayList<String>(cyclePath));
+	}
+
+	/**
+	 * @param cyclePath the files of the cycle, in import order, starting
+	 *                  and ending with the same file
+	 * @param fileParsedList the files parsed
+	 */
+	public ImportCycleException(List<String> cyclePath, Collection<String> fileParsedList) {
+		super(messageOf(cyclePath), fileParsedList);
+		this.cyclePath = Collections.unmodifiableList(new ArrayList<String>(cyclePath));
+	}
+
+	/**
+	 * <p>
+	 *    Returns the files of the cycle, in import order. The first and the
+	 *    last one are the same file.
+	 * </p>
+	 *
+	 * @return the cycle path
+	 */
+	public List<String> getCyclePath() {
+		return cyclePath;
+	}
+
+	private static String messageOf(List<String> cyclePath) {
+		StringBuilder message = new StringBuilder("Import cycle: ");
+		for (int i = 0; i < cyclePath.size(); i++) {
+			if(i > 0) {
+				message.append(" -> ");
+			}
+			message.append(cyclePath.get(i));
+		}
+		return message.toString();
+	}
+}
@@ -28,6 +28,8 @@ import org.apache.commons.lang3.ClassUtils;
 import org.apache.log4j.Logger;
 
 import com.google.code.jconfig.annotation.Cacheable;
+import com.google.code.jconfig.annotation.Immutable;
+import com.google.code.jconfig.annotation.ThreadSafe;
 import com.google.code.jconfig.exception.PluginInstantiationException;
 import com.google.code.jconfig.reader.plugins.IConfigurationPlugin;
 
@@ -41,6 +43,8 @@ import com.google.code.jconfig.reader.plugins.IConfigurationPlugin;
 public abstract class ConfigurationPluginFactory {
 
 	private static ConcurrentHashMap<String, FutureTask<IConfigurationPlugin<?>>> cache = new ConcurrentHashMap<String, FutureTask<IConfigurationPlugin<?>>>();
+	private static ConcurrentHashMap<String, Boolean> immutablePlugins = new ConcurrentHashMap<String, Boolean>();
+	private static ConcurrentHashMap<String, Boolean> threadSafePlugins = new ConcurrentHashMap<String, Boolean>();
 	private static Logger logger = Logger.getLogger(ConfigurationPluginFactory.class);
 	
 	/**
@@ -101,4 +105,61 @@ public abstract class ConfigurationPluginFactory {
 			logger.debug("plugin cache size: " + cache.size() + " - cache detail: " + cache);
 		}
 	}
+	
+	/**
+	 * <p>
+	 *    Returns <em>true</em> if the plugin class <em>classname</em> uses the
+	 *    {@link Immutable} annotation, <em>false</em> otherwise or if the
+	 *    class can't be found.
+	 * </p>
+	 * 
+	 * @param classname the full name of an instance of
+	 *                  {@link IConfigurationPlugin}.
+	 * @return <em>true</em> if the configurations built by the plugin are
+	 *         immutable
+	 */
+	public static boolean isImmutable(String classname) {
+		if(classname == null) {
+			return false;
+		}
+		
+		Boolean immutable = immutablePlugins.get(classname);
+		if(immutable == null) {
+			try {
+				immutable = ( ClassUtils.getClass(classname).getAnnotation(Immutable.class) != null );
+			} catch (ClassNotFoundException e) {
+				return false;
+			}
+			immutablePlugins.put(classname, immutable);
+		}
+		return immutable;
+	}
+	
+	/**
+	 * <p>
+	 *    Returns <em>true</em> if the plugin class <em>classname</em> uses the
+	 *    {@link ThreadSafe} annotation, <em>false</em> otherwise or if the
+	 *    class can't be found.
+	 * </p>
+	 * 
+	 * @param classname the full name of an instance of
+	 *                  {@link IConfigurationPlugin}.
+	 * @return <em>true</em> if the plugin can be invoked concurrently
+	 */
+	public static boolean isThreadSafe(String classname) {
+		if(classname == null) {
+			return false;
+		}
+		
+		Boolean threadSafe = threadSafePlugins.get(classname);
+		if(threadSafe == null) {
+			try {
+				threadSafe = ( ClassUtils.getClass(classname).getAnnotation(ThreadSafe.class) != null );
+			} catch (ClassNotFoundException e) {
+				return false;
+			}
+			threadSafePlugins.put(classname, threadSafe);
+		}
+		return threadSafe;
+	}
 }
@@ -20,53 +20,69 @@
 
 package com.google.code.jconfig.factory;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.FutureTask;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
 import com.google.code.jconfig.exception.ConfigurationParsingException;
 import com.google.code.jconfig.model.ConfigurationInfo;
 import com.google.code.jconfig.reader.ConfigurationReader;
+import com.google.code.jconfig.reader.DependencyGraph;
+import com.google.code.jconfig.reader.FileNode;
 import com.google.code.jconfig.reader.IConfigurationReader;
+import com.google.code.jconfig.reader.ImportResolver;
+import com.google.code.jconfig.reader.ImportTask;
+import com.google.code.jconfig.reader.SnapshotFile;
+import com.google.code.jconfig.reader.plugins.PluginExecutionService;
+import com.google.code.jconfig.statistics.StatisticsService;
 
 /**
  * <p>
  *    Factory for default configuration readers.
  * </p>
  *
+ * <p>
+ *    The readers are kept in a bounded pool and reused by the reads, from
+ *    any number of threads. A read finding the pool empty creates a new
+ *    reader, which goes back to the pool afterwards if there's room.
+ * </p>
+ *
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
  */
 public abstract class ConfigurationReaderFactory {
 
-	private static ConcurrentLinkedQueue<FutureTask<IConfigurationReader>> availableReader;
+	// the reload thread plus the threads reading the imports
+	public static final int DEFAULT_READER_POOL_SIZE = Runtime.getRuntime().availableProcessors() + 1;
+	
+	private static volatile BlockingQueue<IConfigurationReader> availableReader = new ArrayBlockingQueue<IConfigurationReader>(DEFAULT_READER_POOL_SIZE);
 	private static Logger logger = Logger.getLogger(ConfigurationReaderFactory.class);
 	
-	static {
-		availableReader = new ConcurrentLinkedQueue<FutureTask<IConfigurationReader>>();
-		
-		Callable<IConfigurationReader> reader1 = new Callable<IConfigurationReader>() {
-
-			public IConfigurationReader call() throws Exception {
-				return new ConfigurationReader();
-			}
-		};
-			
-		Callable<IConfigurationReader> reader2 = new Callable<IConfigurationReader>() {
-
-			public IConfigurationReader call() throws Exception {
-				return new ConfigurationReader();
-			}
-		};
-			
-		FutureTask<IConfigurationReader> task1 = new FutureTask<IConfigurationReader>(reader1);
-		task1.run();
-		availableReader.add(task1);
-		
-		FutureTask<IConfigurationReader> task2 = new FutureTask<IConfigurationReader>(reader2);
-		task2.run();
-		availableReader.add(task2);
+	/**
+	 * <p>
+	 *    Set the maximum number of readers kept for reuse. The default is
+	 *    {@link #DEFAULT_READER_POOL_SIZE}. The readers exceeding the new size
+	 *    are discarded.
+	 * </p>
+	 * 
+	 * @param size the reader pool size
+	 */
+	public static synchronized void setReaderPoolSize(int size) {
+		if(size < 1) {
+			throw new IllegalArgumentException("Reader pool size must be at least 1: " + size);
+		}
+		BlockingQueue<IConfigurationReader> newPool = new ArrayBlockingQueue<IConfigurationReader>(size);
+		availableReader.drainTo(newPool, size);
+		availableReader = newPool;
 	}
 	
 	/**
@@ -83,10 +99,10 @@ public abstract class ConfigurationReaderFactory {
 	
 	/**
 	 * <p>
-	 *    This method reads a configuration file using a cached instance
-	 *    reader of {@link IConfigurationReader}. If no cached reader are found
+	 *    This method reads a configuration file using a pooled instance
+	 *    reader of {@link IConfigurationReader}. If no pooled reader is found
 	 *    then a new one instance of {@link IConfigurationReader} is created and
-	 *    at the end of its work it will be put in the cache.
+	 *    at the end of its work it will be put in the pool, if not full.
 	 * </p>
 	 * 
 	 * @param resourcePath the absoluter path of the configuration to be red
@@ -94,28 +110,228 @@ public abstract class ConfigurationReaderFactory {
 	 * @throws ConfigurationParsingException
 	 */
 	public static ConfigurationInfo read(String resourcePath) throws ConfigurationParsingException {
-		FutureTask<IConfigurationReader> theTask = (availableReader.isEmpty()? null : availableReader.remove());
-		if(theTask == null) {
-			logger.debug("No reader available. Creatine a new one.");
-			Callable<IConfigurationReader> readerEval = new Callable<IConfigurationReader>() {
-
-				public IConfigurationReader call() throws Exception {
-					return new ConfigurationReader();
-				}
-			};
-			
-			theTask = new FutureTask<IConfigurationReader>(readerEval);
-			theTask.run();
-			logger.debug("New reader instance ready to be uswed and cached.");
+		return read(resourcePath, new DependencyGraph());
+	}
+	
+	/**
+	 * <p>
+	 *    This method reads a configuration file against a
+	 *    {@link DependencyGraph}. If the file and the ones it imports haven't
+	 *    been changed since they were recorded in <em>graph</em>, their
+	 *    configurations are reused without parsing. Otherwise only the changed
+	 *    files are parsed, using a cached instance reader of
+	 *    {@link IConfigurationReader}.
+	 * </p>
+	 * 
+	 * @param resourcePath the absoluter path of the configuration to be red
+	 * @param graph the dependency graph of the previous reads
+	 * @return an instance of {@link ConfigurationInfo}
+	 * @throws ConfigurationParsingException
+	 */
+	public static ConfigurationInfo read(String resourcePath, DependencyGraph graph) throws ConfigurationParsingException {
+		return read(resourcePath, new ImportResolver(graph));
+	}
+	
+	/**
+	 * <p>
+	 *    This method reads a configuration file imported during a read,
+	 *    resolving its own imports by <em>resolver</em>.
+	 * </p>
+	 * 
+	 * @param resourcePath the absoluter path of the configuration to be red
+	 * @param resolver the resolver of the imports of the current read
+	 * @return an instance of {@link ConfigurationInfo}
+	 * @throws ConfigurationParsingException
+	 * @see #read(String, DependencyGraph)
+	 */
+	public static ConfigurationInfo read(String resourcePath, ImportResolver resolver) throws ConfigurationParsingException {
+		FileNode fileNode = resolver.getGraph().getUpToDateNode(resourcePath);
+		if(fileNode != null) {
+			logger.debug("Configuration <" + resourcePath + "> unchanged. Reusing the one already parsed.");
+			return assemble(fileNode, resolver);
+		}
+		
+		IConfigurationReader reader = availableReader.poll();
+		StatisticsService.getReloadStatistics().readerAcquired(reader != null);
+		if(reader == null) {
+			logger.debug("No reader available. Creating a new one.");
+			reader = new ConfigurationReader();
 		}
 		
 		try {
-			return theTask.get().readConfiguration(resourcePath);
+			return reader.readConfiguration(resourcePath, resolver);
+		} catch (ConfigurationParsingException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new ConfigurationParsingException(e.getMessage());
 		} finally {
-			availableReader.add(theTask);
-			logger.debug("Current reader cache size: " + availableReader.size());
+			if( !availableReader.offer(reader) ) {
+				logger.debug("Reader pool full. Discarding the reader.");
+			}
+		}
+	}
+	
+	/**
+	 * <p>
+	 *    Read the configurations from a snapshot written by
+	 *    {@link #writeSnapshot(File, String, List, DependencyGraph)}, without
+	 *    parsing. Only the files whose content still matches the checksum in
+	 *    the snapshot contribute their configurations, built by invoking the
+	 *    plugins on the fragments stored. Their nodes are recorded in
+	 *    <em>graph</em>, so the next read parses every file again but reuses
+	 *    the configurations of the unchanged fragments.
+	 * </p>
+	 * 
+	 * @param snapshotFile the snapshot file
+	 * @param resourcePath the absolute path of the root configuration file
+	 * @param graph the dependency graph to be filled
+	 * @return an instance of {@link ConfigurationInfo}, or <em>null</em> if
+	 *         the snapshot was taken from another root file
+	 * @throws ConfigurationParsingException if a plugin can't be instantiated
+	 *                                       or fails
+	 * @throws IOException if the snapshot can't be read
+	 */
+	public static ConfigurationInfo readSnapshot(File snapshotFile, String resourcePath, DependencyGraph graph) throws ConfigurationParsingException, IOException {
+		List<FileNode> snapshotNodes = SnapshotFile.read(snapshotFile, resourcePath);
+		if(snapshotNodes == null) {
+			return null;
+		}
+		
+		List<FileNode> unchangedNodes = new ArrayList<FileNode>();
+		List<Future<Object>> builds = new ArrayList<Future<Object>>();
+		for (FileNode aSnapshotNode : snapshotNodes) {
+			if(aSnapshotNode.getChecksum() != FileNode.checksumOf(new File(aSnapshotNode.getPath()))) {
+				logger.debug("Configuration <" + aSnapshotNode.getPath() + "> changed since the snapshot. Skipping it.");
+				continue;
+			}
+			
+			unchangedNodes.add(aSnapshotNode);
+			for (FileNode.Entry anEntry : aSnapshotNode.getEntries()) {
+				if( !anEntry.isImport() ) {
+					builds.add(PluginExecutionService.build(anEntry.getPluginClass(), anEntry.getId(), aSnapshotNode.getPath(), anEntry.getNode()));
+				}
+			}
+		}
+		
+		Map<String, FileNode> restoredNodes = new HashMap<String, FileNode>();
+		int buildIndex = 0;
+		for (FileNode aSnapshotNode : unchangedNodes) {
+			FileNode fileNode = new FileNode(aSnapshotNode.getPath(), 0L, -1L);
+			fileNode.setChecksum(aSnapshotNode.getChecksum());
+			for (FileNode.Entry anEntry : aSnapshotNode.getEntries()) {
+				if(anEntry.isImport()) {
+					fileNode.addImport(anEntry.getImportedPath());
+				} else {
+					Object configuration = PluginExecutionService.getConfiguration(builds.get(buildIndex++));
+					fileNode.addConfiguration(anEntry.getId(), anEntry.getPluginClass(), configuration, anEntry.getFingerprint(), anEntry.getNode());
+				}
+			}
+			graph.putNode(fileNode);
+			restoredNodes.put(fileNode.getPath(), fileNode);
+		}
+		
+		ConfigurationInfo configurationInfo = new ConfigurationInfo();
+		for (FileNode aSnapshotNode : snapshotNodes) {
+			configurationInfo.addConfigurationFilePath(aSnapshotNode.getPath());
+		}
+		Map<String, FileNode> snapshotPaths = new HashMap<String, FileNode>();
+		for (FileNode aSnapshotNode : snapshotNodes) {
+			snapshotPaths.put(aSnapshotNode.getPath(), aSnapshotNode);
+		}
+		assembleSnapshot(snapshotNodes.get(0).getPath(), snapshotPaths, restoredNodes, configurationInfo, new HashSet<String>());
+		return configurationInfo;
+	}
+	
+	/**
+	 * <p>
+	 *    Write a snapshot of the files in <em>paths</em>, as recorded in
+	 *    <em>graph</em>. The graph must be retaining the configuration
+	 *    fragments, otherwise nothing is written.
+	 * </p>
+	 * 
+	 * @param snapshotFile the snapshot file
+	 * @param resourcePath the absolute path of the root configuration file
+	 * @param paths the absolute paths of all the configuration files
+	 * @param graph the dependency graph of the last read
+	 * @return <em>true</em> if the snapshot was written
+	 * @throws IOException
+	 */
+	public static boolean writeSnapshot(File snapshotFile, String resourcePath, List<String> paths, DependencyGraph graph) throws IOException {
+		List<FileNode> fileNodes = new ArrayList<FileNode>();
+		for (String aPath : paths) {
+			FileNode fileNode = graph.getNode(aPath);
+			if(fileNode == null) {
+				return false;
+			}
+			for (FileNode.Entry anEntry : fileNode.getEntries()) {
+				if( !anEntry.isImport() && (anEntry.getNode() == null) ) {
+					return false;
+				}
+			}
+			fileNodes.add(fileNode);
+		}
+		
+		SnapshotFile.write(snapshotFile, resourcePath, fileNodes);
+		return true;
+	}
+	
+	/*
+	 * Add the configurations of the file at path and its imports in document
+	 * order, so that a configuration overrides the ones with the same id
+	 * before it, as a read does. A file changed since the snapshot has no
+	 * restored node: its imports are followed as recorded in the snapshot,
+	 * its configurations skipped.
+	 */
+	private static void assembleSnapshot(String path, Map<String, FileNode> snapshotNodes, Map<String, FileNode> restoredNodes,
+	                                     ConfigurationInfo configurationInfo, Set<String> importing) {
+		FileNode restoredNode = restoredNodes.get(path);
+		FileNode fileNode = ( (restoredNode != null)? restoredNode : snapshotNodes.get(path) );
+		if( (fileNode == null) || !importing.add(path) ) {
+			return;
+		}
+		for (FileNode.Entry anEntry : fileNode.getEntries()) {
+			if(anEntry.isImport()) {
+				assembleSnapshot(anEntry.getImportedPath(), snapshotNodes, restoredNodes, configurationInfo, importing);
+			} else if(restoredNode != null) {
+				configurationInfo.addConfigurationDetail(anEntry.getId(), anEntry.getPluginClass(), anEntry.getConfiguration(), anEntry.getFingerprint());
+			}
+		}
+		importing.remove(path);
+	}
+	
+	private static ConfigurationInfo assemble(FileNode fileNode, ImportResolver resolver) throws ConfigurationParsingException {
+		ConfigurationInfo configurationInfo = new ConfigurationInfo();
+		configurationInfo.addConfigurationFilePath(fileNode.getPath());
+		List<ImportTask> importTasks = new ArrayList<ImportTask>();
+		for (FileNode.Entry anEntry : fileNode.getEntries()) {
+			if(anEntry.isImport()) {
+				importTasks.add(resolver.resolve(fileNode.getPath(), anEntry.getImportedPath()));
+			}
+		}
+		
+		ConfigurationParsingException failure = null;
+		int importIndex = 0;
+		for (FileNode.Entry anEntry : fileNode.getEntries()) {
+			if(anEntry.isImport()) {
+				try {
+					configurationInfo.add(importTasks.get(importIndex++).getConfigurationInfo());
+				} catch (ConfigurationParsingException e) {
+					if(failure == null) {
+						failure = e;
+					} else {
+						failure.getFileParsedList().addAll(e.getFileParsedList());
+					}
+				}
+			} else {
+				configurationInfo.addConfigurationDetail(anEntry.getId(), anEntry.getPluginClass(), anEntry.getConfiguration(), anEntry.getFingerprint());
+			}
+		}
+		
+		if(failure != null) {
+			// this file and the other imports must still be watched
+			failure.getFileParsedList().addAll(configurationInfo.getConfFileList());
+			throw failure;
 		}
+		return configurationInfo;
 	}
 }
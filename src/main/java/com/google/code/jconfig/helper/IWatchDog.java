@@ -0,0 +1,50 @@
+/*
+ * @(#)IWatchDog.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+import java.util.Collection;
+
+/**
+ * <p>
+ *    Implemented by classes able to watch a collection of configuration files
+ *    in search of changes.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public interface IWatchDog extends Runnable {
+
+	/**
+	 * <p>
+	 *    Replace the files currently watched with <em>fileList</em>.
+	 * </p>
+	 *
+	 * @param fileList the absolute paths of the files to be watched
+	 */
+	public void reloadFileList(Collection<String> fileList);
+
+	/**
+	 * <p>
+	 *    Stop watching files and release the resources allocated.
+	 * </p>
+	 */
+	public void stopWatching();
+}
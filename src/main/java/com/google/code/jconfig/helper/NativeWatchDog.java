@@ -0,0 +1,189 @@
+/*
+ * @(#)NativeWatchDog.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * <p>
+ *    Watch a collection of file in search of changes using the native file
+ *    system events delivered by a {@link WatchService}.
+ * </p>
+ *
+ * <p>
+ *    The parent directory of every watched file is registered once, so a
+ *    change is detected as soon as the file system reports it instead of at
+ *    the next polling tick. The reload itself is delegated to a
+ *    {@link ReloadCoalescer}, since a single save usually produces several
+ *    events.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class NativeWatchDog implements IWatchDog {
+
+	private ReloadCoalescer reloadCoalescer;
+	private WatchService watchService;
+	private Map<WatchKey, Path> watchedDirectories;
+	private volatile Set<Path> fileToBeWatched;
+	private volatile boolean interrupted = false;
+
+	private static final Logger logger = Logger.getLogger(NativeWatchDog.class);
+
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 *
+	 * @param reloadCoalescer the coalescer in charge of running the reload
+	 * @param fileList a list of the file to be watched
+	 * @throws IOException if the directories of the files can't be registered
+	 * @throws UnsupportedOperationException if the file system doesn't support
+	 *                                       change events
+	 */
+	public NativeWatchDog(ReloadCoalescer reloadCoalescer, Collection<String> fileList) throws IOException {
+		this.reloadCoalescer = reloadCoalescer;
+		watchedDirectories = new HashMap<WatchKey, Path>();
+		fileToBeWatched = Collections.emptySet();
+		watchService = FileSystems.getDefault().newWatchService();
+		try {
+			registerFileList(fileList);
+		} catch (IOException e) {
+			watchService.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.helper.IWatchDog#reloadFileList(java.util.Collection)
+	 */
+	public void reloadFileList(Collection<String> fileList) {
+		try {
+			registerFileList(fileList);
+		} catch (IOException e) {
+			logger.error("Unable to watch configuration files: " + e.getMessage(), e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.helper.IWatchDog#stopWatching()
+	 */
+	public void stopWatching() {
+		interrupted = true;
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+	private synchronized void registerFileList(Collection<String> fileList) throws IOException {
+		Set<Path> files = new HashSet<Path>();
+		Set<Path> directories = new HashSet<Path>();
+		for (String aFilePath : fileList) {
+			Path path = Paths.get(aFilePath).toAbsolutePath().normalize();
+			files.add(path);
+			directories.add(path.getParent());
+		}
+
+		// release the directories no longer needed, keep the ones already registered
+		Iterator<Entry<WatchKey, Path>> keyItr = watchedDirectories.entrySet().iterator();
+		while(keyItr.hasNext()) {
+			Entry<WatchKey, Path> aKeyEntry = keyItr.next();
+			if( !directories.remove(aKeyEntry.getValue()) ) {
+				aKeyEntry.getKey().cancel();
+				keyItr.remove();
+			}
+		}
+
+		for (Path aDirectory : directories) {
+			logger.debug("Watching directory: " + aDirectory);
+			WatchKey key = aDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			watchedDirectories.put(key, aDirectory);
+		}
+
+		fileToBeWatched = files;
+	}
+
+	private synchronized Path getWatchedDirectory(WatchKey key) {
+		return watchedDirectories.get(key);
+	}
+
+	public void run() {
+		while(!interrupted) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException e) {
+				logger.info("Watchdog interrupted. Stop watching!!!");
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+
+			boolean changed = false;
+			Path directory = getWatchedDirectory(key);
+			Set<Path> files = fileToBeWatched;
+			for (WatchEvent<?> anEvent : key.pollEvents()) {
+				if(directory == null) {
+					continue;
+				}
+
+				if(anEvent.kind() == OVERFLOW) {
+					// some events are lost, assume the worst
+					changed = true;
+				} else if( files.contains(directory.resolve((Path)anEvent.context())) ) {
+					changed = true;
+				}
+			}
+			key.reset();
+
+			if(changed) {
+				logger.info("Found configuration changes.");
+				reloadCoalescer.fire();
+			}
+		}
+	}
+}
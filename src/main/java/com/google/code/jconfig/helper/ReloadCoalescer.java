@@ -0,0 +1,123 @@
+/*
+ * @(#)ReloadCoalescer.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.google.code.jconfig.factory.DaemonThreadFactory;
+
+/**
+ * <p>
+ *    Coalesces a burst of change notifications into a single reload.
+ * </p>
+ *
+ * <p>
+ *    Every call to {@link #fire()} restarts the quiet period; the reload task
+ *    runs only once no other change has been signalled for the whole quiet
+ *    period. So an editor writing a file in several steps, or a deploy
+ *    touching many imported files, produces exactly one reload.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ReloadCoalescer {
+
+	private Runnable reloadTask;
+	private long quietPeriod;
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> pendingReload;
+	private int coalescedEvents = 0;
+
+	private static final Logger logger = Logger.getLogger(ReloadCoalescer.class);
+
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 *
+	 * @param reloadTask the task to be run once the changes settle
+	 * @param quietPeriod the time in ms without changes to wait before
+	 *                    running the reload task
+	 */
+	public ReloadCoalescer(Runnable reloadTask, long quietPeriod) {
+		this.reloadTask = reloadTask;
+		this.quietPeriod = quietPeriod;
+		scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+	}
+
+	/**
+	 * <p>
+	 *    Signal a change. The reload will be run after the quiet period,
+	 *    unless another change is signalled meanwhile.
+	 * </p>
+	 */
+	public synchronized void fire() {
+		if(scheduler.isShutdown()) {
+			return;
+		}
+
+		coalescedEvents++;
+		if(pendingReload != null) {
+			pendingReload.cancel(false);
+		}
+
+		Runnable runnable = new Runnable() {
+			public void run() {
+				int events;
+				synchronized (ReloadCoalescer.this) {
+					events = coalescedEvents;
+					coalescedEvents = 0;
+					pendingReload = null;
+				}
+
+				logger.debug("Reloading after " + events + " change event(s).");
+				reloadTask.run();
+			}
+		};
+
+		pendingReload = scheduler.schedule(runnable, quietPeriod, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * <p>
+	 *    Discard any pending reload and release the scheduler.
+	 * </p>
+	 */
+	public synchronized void shutdown() {
+		if(pendingReload != null) {
+			pendingReload.cancel(false);
+			pendingReload = null;
+		}
+		scheduler.shutdown();
+	}
+
+	/**
+	 * @return <em>true</em> if the coalescer has been shut down
+	 */
+	public boolean isShutdown() {
+		return scheduler.isShutdown();
+	}
+}
@@ -35,28 +35,48 @@ import com.google.code.jconfig.ConfigurationManager;
  *
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
  */
-public class WatchDog implements Runnable {
+public class WatchDog implements IWatchDog {
 
 	private long delay = 0L;
-	private ConfigurationManager singleInstance;
+	private ReloadCoalescer reloadCoalescer;
+	private boolean ownedCoalescer = false;
 	private Collection<FileInfo> fileToBeWatched;
-	private boolean interrupted = false;
-	private boolean suspendConfigurationCheck = false;
+	private volatile boolean interrupted = false;
+	private volatile boolean suspendConfigurationCheck = false;
 	
 	private static final Logger logger = Logger.getLogger(WatchDog.class);
 	
 	/**
 	 * <p>
-	 *    Constructor
+	 *    Constructor. The reload runs through a coalescer owned by this
+	 *    watchdog, shut down when it stops watching.
 	 * </p>
 	 * 
 	 * @param singleInstance the singleton instance of {@link ConfigurationManager}
 	 * @param fileList a list of the file to be watched
 	 * @param delay the delay in ms
 	 */
-	public WatchDog(ConfigurationManager singleInstance, Collection<String> fileList, long delay) {
+	public WatchDog(final ConfigurationManager singleInstance, Collection<String> fileList, long delay) {
+		this(new ReloadCoalescer(new Runnable() {
+			public void run() {
+				singleInstance.doConfigure();
+			}
+		}, 0L), fileList, delay);
+		ownedCoalescer = true;
+	}
+	
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 * 
+	 * @param reloadCoalescer the coalescer in charge of running the reload
+	 * @param fileList a list of the file to be watched
+	 * @param delay the delay in ms
+	 */
+	public WatchDog(ReloadCoalescer reloadCoalescer, Collection<String> fileList, long delay) {
 		this.delay = delay;
-		this.singleInstance = singleInstance;
+		this.reloadCoalescer = reloadCoalescer;
 		fileToBeWatched = new ArrayList<FileInfo>();
 		for (String aFilePath : fileList) {
 			fileToBeWatched.add(new FileInfo(aFilePath));
@@ -65,6 +85,10 @@ public class WatchDog implements Runnable {
 		checkAndConfigure();
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.helper.IWatchDog#reloadFileList(java.util.Collection)
+	 */
 	public void reloadFileList(Collection<String> fileList) {
 		fileToBeWatched.clear();
 		for (String aFilePath : fileList) {
@@ -72,11 +96,34 @@ public class WatchDog implements Runnable {
 		}
 		suspendConfigurationCheck = false;
 	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.helper.IWatchDog#stopWatching()
+	 */
+	public void stopWatching() {
+		interrupted = true;
+		releaseCoalescer();
+	}
+	
+	ReloadCoalescer getReloadCoalescer() {
+		return reloadCoalescer;
+	}
+	
+	private void releaseCoalescer() {
+		if(ownedCoalescer) {
+			reloadCoalescer.shutdown();
+		}
+	}
 
 	/**
-	 * 
+	 * <p>
+	 *    Check every watched file and signal a single reload if at least one
+	 *    of them has changed.
+	 * </p>
 	 */
 	private void checkAndConfigure() {
+		boolean changed = false;
 		for (FileInfo aFileInfo : fileToBeWatched) {
 			File file = aFileInfo.getFile();
 			try {
@@ -90,12 +137,15 @@ public class WatchDog implements Runnable {
 			long l = file.lastModified();
 			if(aFileInfo.getLastModify() < l) {
 				aFileInfo.setLastModify(l);
-				logger.info("Found configuration changes.");
-				suspendConfigurationCheck = true;
-				singleInstance.doConfigure();
-				break;
+				changed = true;
 			}
 		}
+		
+		if(changed) {
+			logger.info("Found configuration changes.");
+			suspendConfigurationCheck = true;
+			reloadCoalescer.fire();
+		}
 	}
 	
 	public void run() {
@@ -111,5 +161,6 @@ public class WatchDog implements Runnable {
 				checkAndConfigure();
 			}
 		}
+		releaseCoalescer();
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * @(#)WatchMode.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+/**
+ * <p>
+ *    The strategies available for detecting configuration file changes.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public enum WatchMode {
+
+	/**
+	 * Use the file system native change events through a
+	 * {@link java.nio.file.WatchService}. If the file system doesn't support
+	 * it, {@link #POLLING} will be used instead.
+	 */
+	NATIVE,
+
+	/**
+	 * Check the last modification date of every watched file at a fixed
+	 * delay.
+	 */
+	POLLING
+}
@@ -20,6 +20,7 @@
 
 package com.google.code.jconfig.helper;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -42,10 +43,41 @@ import com.google.code.jconfig.factory.DaemonThreadFactory;
 public abstract class WatchdogService {
 
 	private static final Logger logger = Logger.getLogger(WatchdogService.class);
-	private static WatchDog watchDog;
+	private static IWatchDog watchDog;
+	private static WatchMode watchMode = WatchMode.NATIVE;
+	private static ReloadCoalescer reloadCoalescer;
 	public static final long DEFAULT_DELAY = 60000; // 60 seconds delay
+	public static final long DEFAULT_QUIET_PERIOD = 300; // 300 ms without changes before reloading
+	private static long quietPeriod = DEFAULT_QUIET_PERIOD;
 	private static ExecutorService executorService = Executors.newSingleThreadExecutor(new DaemonThreadFactory());
 	
+	/**
+	 * <p>
+	 *    Set the strategy used for detecting changes. It must be set before
+	 *    the first call to any <em>watch</em> method. The default is
+	 *    {@link WatchMode#NATIVE}.
+	 * </p>
+	 * 
+	 * @param mode the strategy for detecting changes
+	 */
+	public static synchronized void setWatchMode(WatchMode mode) {
+		watchMode = mode;
+	}
+	
+	/**
+	 * <p>
+	 *    Set the time in ms that must elapse without further changes before a
+	 *    reload is started. All the changes detected meanwhile will be
+	 *    coalesced in a single reload. It must be set before the first call to
+	 *    any <em>watch</em> method. The default is {@link #DEFAULT_QUIET_PERIOD}.
+	 * </p>
+	 * 
+	 * @param period the quiet period in ms
+	 */
+	public static synchronized void setQuietPeriod(long period) {
+		quietPeriod = period;
+	}
+	
 	/**
 	 * <p>
 	 *    Watch changes on the root configuration file.
@@ -94,17 +126,39 @@ public abstract class WatchdogService {
 	 * @param singleInstance the singleton instance of the {@link ConfigurationManager}
 	 * @param filePathList the collection of configuration file paths to be
 	 *                     watched for changes.
-	 * @param delay the delay in ms
+	 * @param delay the delay in ms, used only when polling for changes
 	 */
 	public static synchronized void watch(ConfigurationManager singleInstance, Collection<String> filePathList, long delay) {
 		if(watchDog == null) {
-			watchDog = new WatchDog(singleInstance, filePathList, delay);
+			watchDog = createWatchDog(singleInstance, filePathList, delay);
 			executorService.execute(watchDog);
 		} else {
 			watchDog.reloadFileList(filePathList);
 		}
 	}
 	
+	private static IWatchDog createWatchDog(final ConfigurationManager singleInstance, Collection<String> filePathList, long delay) {
+		reloadCoalescer = new ReloadCoalescer(new Runnable() {
+			public void run() {
+				singleInstance.doConfigure();
+			}
+		}, quietPeriod);
+		
+		if(watchMode == WatchMode.NATIVE) {
+			try {
+				logger.info("Watching configuration files using native file system events.");
+				return new NativeWatchDog(reloadCoalescer, filePathList);
+			} catch (IOException e) {
+				logger.warn("Native file system events not available, falling back to polling: " + e.getMessage());
+			} catch (UnsupportedOperationException e) {
+				logger.warn("Native file system events not supported, falling back to polling.");
+			}
+		}
+		
+		logger.info("Watching configuration files every " + delay + " ms.");
+		return new WatchDog(reloadCoalescer, filePathList, delay);
+	}
+	
 	/**
 	 *  <p>
 	 *    Stop watching configuration files.
@@ -112,6 +166,12 @@ public abstract class WatchdogService {
 	 */
 	public static void shutdown() {
 		logger.info("Shutting down watchdog resources.");
+		synchronized (WatchdogService.class) {
+			if(watchDog != null) {
+				watchDog.stopWatching();
+				reloadCoalescer.shutdown();
+			}
+		}
 		executorService.shutdown();
 	}
 }
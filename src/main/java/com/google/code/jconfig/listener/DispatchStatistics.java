@@ -0,0 +1,202 @@
+/*
+ * @(#)DispatchStatistics.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.listener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *    Counters about the notifications dispatched to the listeners: how many
+ *    are waiting, how many were replaced by a newer one before running, how
+ *    long they wait before running and how long every listener takes to
+ *    handle them.
+ * </p>
+ *
+ * <p>
+ *    All the times are in nanoseconds.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class DispatchStatistics {
+
+	private AtomicInteger queueDepth = new AtomicInteger();
+	private AtomicInteger maxQueueDepth = new AtomicInteger();
+	private AtomicLong supersededCount = new AtomicLong();
+	private ExecutionTime dispatchLatency = new ExecutionTime();
+	private ConcurrentHashMap<String, ExecutionTime> listenerExecutionTimes = new ConcurrentHashMap<String, ExecutionTime>();
+
+	/**
+	 * <p>
+	 *    Returns the number of notifications waiting for a thread.
+	 * </p>
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the highest number of notifications ever waiting for a
+	 *    thread.
+	 * </p>
+	 *
+	 * @return the maximum queue depth
+	 */
+	public int getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the number of notifications dropped without running, because
+	 *    a newer one for the same listener and configuration id was
+	 *    dispatched.
+	 * </p>
+	 *
+	 * @return the number of superseded notifications
+	 */
+	public long getSupersededCount() {
+		return supersededCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the time elapsed between submitting the notifications and
+	 *    starting them.
+	 * </p>
+	 *
+	 * @return the dispatch latency
+	 */
+	public ExecutionTime getDispatchLatency() {
+		return dispatchLatency;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the time spent in
+	 *    {@link IConfigurationChangeListener#loadConfiguration(Object)}, by
+	 *    listener class name.
+	 * </p>
+	 *
+	 * @return an unmodifiable view of the listener execution times
+	 */
+	public Map<String, ExecutionTime> getListenerExecutionTimes() {
+		return Collections.unmodifiableMap(listenerExecutionTimes);
+	}
+
+	void queued() {
+		int depth = queueDepth.incrementAndGet();
+		int max = maxQueueDepth.get();
+		while( (depth > max) && !maxQueueDepth.compareAndSet(max, depth) ) {
+			max = maxQueueDepth.get();
+		}
+	}
+
+	void started(long latency) {
+		queueDepth.decrementAndGet();
+		dispatchLatency.record(latency);
+	}
+
+	void superseded() {
+		queueDepth.decrementAndGet();
+		supersededCount.incrementAndGet();
+	}
+
+	void executed(String listenerName, long time) {
+		ExecutionTime executionTime = listenerExecutionTimes.get(listenerName);
+		if(executionTime == null) {
+			ExecutionTime newExecutionTime = new ExecutionTime();
+			executionTime = listenerExecutionTimes.putIfAbsent(listenerName, newExecutionTime);
+			if(executionTime == null) {
+				executionTime = newExecutionTime;
+			}
+		}
+		executionTime.record(time);
+	}
+
+	@Override
+	public String toString() {
+		return "DispatchStatistics [queueDepth=" + queueDepth + ", maxQueueDepth=" + maxQueueDepth + ", supersededCount=" + supersededCount
+		       + ", dispatchLatency=" + dispatchLatency + ", listenerExecutionTimes=" + listenerExecutionTimes + "]";
+	}
+
+	/**
+	 * <p>
+	 *    Count, total and maximum of a measured time.
+	 * </p>
+	 */
+	public static class ExecutionTime {
+
+		private AtomicLong count = new AtomicLong();
+		private AtomicLong total = new AtomicLong();
+		private AtomicLong max = new AtomicLong();
+
+		void record(long time) {
+			count.incrementAndGet();
+			total.addAndGet(time);
+			long currentMax = max.get();
+			while( (time > currentMax) && !max.compareAndSet(currentMax, time) ) {
+				currentMax = max.get();
+			}
+		}
+
+		/**
+		 * @return the number of times measured
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * @return the sum of the times measured
+		 */
+		public long getTotal() {
+			return total.get();
+		}
+
+		/**
+		 * @return the maximum time measured
+		 */
+		public long getMax() {
+			return max.get();
+		}
+
+		/**
+		 * @return the average time measured, 0 if nothing was measured
+		 */
+		public long getAverage() {
+			long measures = count.get();
+			return ( (measures > 0)? total.get() / measures : 0L );
+		}
+
+		@Override
+		public String toString() {
+			return "[count=" + getCount() + ", average=" + getAverage() + ", max=" + getMax() + "]";
+		}
+	}
+}
@@ -35,8 +35,23 @@ public interface IConfigurationChangeListener {
 	 * </p>
 	 * 
 	 * <p>
-	 *   Concurrent call to this method may be occurs.
-	 *   Thread safety must be granted by developers if necessary.
+	 *   Concurrent call to this method may be occurs for different
+	 *   configuration ids. Thread safety must be granted by developers if
+	 *   necessary.
+	 * </p>
+	 * 
+	 * <p>
+	 *   For the same configuration id this method is never called
+	 *   concurrently, and always with a newer configuration than the previous
+	 *   call: intermediate versions of a configuration changing faster than
+	 *   the listener handles it are skipped.
+	 * </p>
+	 * 
+	 * <p>
+	 *   The configuration is a deep clone owned by the listener, unless the
+	 *   plugin that built it is marked as
+	 *   {@link com.google.code.jconfig.annotation.Immutable}: in that case the
+	 *   same instance is shared with every listener.
 	 * </p>
 	 * 
 	 * @param configuration the configuration to be loaded.
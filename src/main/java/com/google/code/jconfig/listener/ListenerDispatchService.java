@@ -0,0 +1,415 @@
+/*
+ * @(#)ListenerDispatchService.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.listener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.google.code.jconfig.statistics.IReloadEvent;
+import com.google.code.jconfig.statistics.ReloadEvents;
+
+/**
+ * <p>
+ *    Runs the listener notifications on a bounded pool of threads.
+ * </p>
+ *
+ * <p>
+ *    Notifications for different listeners, or different configuration ids,
+ *    run in parallel. The notifications for the same listener and id run one
+ *    at a time, in the order they were dispatched. A notification still
+ *    waiting when a newer one for the same listener and id is dispatched is
+ *    dropped, so a listener only receives the latest configuration.
+ * </p>
+ *
+ * <p>
+ *    At most <em>pool size</em> notifications run at the same time and at
+ *    most <em>queue capacity</em> wait for a thread: when both are used up,
+ *    the thread dispatching a new notification waits for one to complete.
+ *    On a Java runtime with virtual threads they can be used instead of the
+ *    pool; the number of notifications in flight stays bounded the same way.
+ * </p>
+ *
+ * <p>
+ *    The settings must be changed before the first notification is
+ *    dispatched.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class ListenerDispatchService {
+
+	private static final Logger logger = Logger.getLogger(ListenerDispatchService.class);
+	public static final int DEFAULT_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+	public static final long DEFAULT_SLOW_LISTENER_THRESHOLD = 1000; // 1 second
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private static int poolSize = DEFAULT_POOL_SIZE;
+	private static int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private static boolean virtualThreads = false;
+	private static long slowListenerThreshold = DEFAULT_SLOW_LISTENER_THRESHOLD;
+
+	private static ExecutorService executorService;
+	private static Semaphore inFlight;
+	private static DispatchStatistics statistics = new DispatchStatistics();
+	private static ConcurrentHashMap<MailboxKey, Mailbox> mailboxes = new ConcurrentHashMap<MailboxKey, Mailbox>();
+
+	/**
+	 * <p>
+	 *    Set the number of notifications that can run at the same time. The
+	 *    default is {@link #DEFAULT_POOL_SIZE}.
+	 * </p>
+	 *
+	 * @param size the pool size
+	 */
+	public static synchronized void setPoolSize(int size) {
+		if(size < 1) {
+			throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+		}
+		poolSize = size;
+	}
+
+	/**
+	 * <p>
+	 *    Set the number of notifications that can wait for a thread. The
+	 *    default is {@link #DEFAULT_QUEUE_CAPACITY}.
+	 * </p>
+	 *
+	 * @param capacity the queue capacity
+	 */
+	public static synchronized void setQueueCapacity(int capacity) {
+		if(capacity < 0) {
+			throw new IllegalArgumentException("Queue capacity can't be negative: " + capacity);
+		}
+		queueCapacity = capacity;
+	}
+
+	/**
+	 * <p>
+	 *    Run every notification on its own virtual thread, if the Java
+	 *    runtime supports them. Otherwise the pool is used.
+	 * </p>
+	 *
+	 * @param value <em>true</em> for using virtual threads
+	 */
+	public static synchronized void setUseVirtualThreads(boolean value) {
+		virtualThreads = value;
+	}
+
+	/**
+	 * <p>
+	 *    Set the time in ms above which a listener is logged as slow. The
+	 *    default is {@link #DEFAULT_SLOW_LISTENER_THRESHOLD}.
+	 * </p>
+	 *
+	 * @param threshold the threshold in ms
+	 */
+	public static synchronized void setSlowListenerThreshold(long threshold) {
+		slowListenerThreshold = threshold;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the statistics of the notifications dispatched so far.
+	 * </p>
+	 *
+	 * @return the dispatch statistics
+	 */
+	public static DispatchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * <p>
+	 *    Run <em>notification</em> of configuration <em>id</em> for
+	 *    <em>listener</em> on the pool, after the notification of the same
+	 *    listener and id currently running, if any. A notification of the same
+	 *    listener and id still waiting is replaced. If the pool and its queue
+	 *    are full, wait until a notification completes.
+	 * </p>
+	 *
+	 * @param id the configuration id
+	 * @param listener the listener to be notified
+	 * @param notification the task invoking the listener
+	 */
+	public static void dispatch(String id, IConfigurationChangeListener listener, Runnable notification) {
+		statistics.queued();
+		PendingNotification pendingNotification = new PendingNotification(notification, System.nanoTime());
+		int result;
+		Mailbox mailbox;
+		do {
+			mailbox = getMailbox(id, listener);
+			result = mailbox.offer(pendingNotification);
+			if(result == Mailbox.RETIRED) {
+				/* it may not be removed yet by the thread retiring it */
+				mailboxes.remove(mailbox.key, mailbox);
+			}
+		} while(result == Mailbox.RETIRED);
+		
+		if(result == Mailbox.SUPERSEDED) {
+			statistics.superseded();
+		} else if(result == Mailbox.SCHEDULE) {
+			submit(mailbox);
+		}
+	}
+
+	/*
+	 * Stop the pool, so that the next notification starts a new one with the
+	 * current settings.
+	 */
+	static synchronized void reset() {
+		if(executorService != null) {
+			executorService.shutdown();
+			executorService = null;
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Stop accepting notifications. The ones already dispatched are
+	 *    completed.
+	 * </p>
+	 */
+	public static synchronized void shutdown() {
+		logger.info("Shutting down listener dispatch resources.");
+		if(executorService != null) {
+			executorService.shutdown();
+		}
+	}
+
+	private static Mailbox getMailbox(String id, IConfigurationChangeListener listener) {
+		MailboxKey key = new MailboxKey(id, listener);
+		Mailbox mailbox = mailboxes.get(key);
+		if(mailbox == null) {
+			Mailbox newMailbox = new Mailbox(key, listener.getClass().getName());
+			mailbox = mailboxes.putIfAbsent(key, newMailbox);
+			if(mailbox == null) {
+				mailbox = newMailbox;
+			}
+		}
+		return mailbox;
+	}
+
+	private static void submit(final Mailbox mailbox) {
+		ExecutorService executor;
+		final Semaphore permits;
+		synchronized (ListenerDispatchService.class) {
+			if(executorService == null) {
+				start();
+			}
+			executor = executorService;
+			permits = inFlight;
+			mailbox.threshold = TimeUnit.MILLISECONDS.toNanos(slowListenerThreshold);
+		}
+
+		permits.acquireUninterruptibly();
+		Runnable runnable = new Runnable() {
+			public void run() {
+				try {
+					mailbox.run();
+				} finally {
+					permits.release();
+				}
+			}
+		};
+
+		try {
+			executor.execute(runnable);
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			logger.error("Notifications for listener <" + mailbox.listenerName + "> rejected: " + e.getMessage());
+			mailbox.discard();
+		}
+	}
+
+	private static void start() {
+		inFlight = new Semaphore(poolSize + queueCapacity);
+		if(virtualThreads) {
+			executorService = newVirtualThreadExecutor();
+			if(executorService != null) {
+				logger.info("Dispatching notifications on virtual threads, at most " + (poolSize + queueCapacity) + " in flight.");
+				return;
+			}
+			logger.warn("Virtual threads not available, falling back to the pool.");
+		}
+
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		pool.allowCoreThreadTimeOut(true);
+		executorService = pool;
+		logger.info("Dispatching notifications on " + poolSize + " threads, at most " + queueCapacity + " waiting.");
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * <p>
+	 *    The notification waiting for a listener and configuration id. It's
+	 *    submitted to the pool when a notification arrives and nothing is
+	 *    running, then it runs the pending notification until there's none
+	 *    left. A newer notification replaces the pending one.
+	 * </p>
+	 *
+	 * <p>
+	 *    Once there's none left the mailbox is retired and removed, so the
+	 *    service doesn't hold the listeners no longer notified: the next
+	 *    notification gets a new mailbox.
+	 * </p>
+	 */
+	private static class Mailbox implements Runnable {
+
+		private static final int SCHEDULE = 0;
+		private static final int ENQUEUED = 1;
+		private static final int SUPERSEDED = 2;
+		private static final int RETIRED = 3;
+
+		private MailboxKey key;
+		private String id;
+		private String listenerName;
+		private volatile long threshold;
+		private PendingNotification pending;
+		private boolean scheduled = false;
+		private boolean retired = false;
+
+		private Mailbox(MailboxKey key, String listenerName) {
+			this.key = key;
+			this.id = key.id;
+			this.listenerName = listenerName;
+		}
+
+		/*
+		 * Returns SCHEDULE if the mailbox must be submitted to the pool,
+		 * SUPERSEDED if a pending notification was dropped, RETIRED if the
+		 * notification must be offered to a new mailbox.
+		 */
+		private synchronized int offer(PendingNotification notification) {
+			if(retired) {
+				return RETIRED;
+			}
+			boolean superseded = (pending != null);
+			pending = notification;
+			if(superseded) {
+				return SUPERSEDED;
+			}
+			if(scheduled) {
+				return ENQUEUED;
+			}
+			scheduled = true;
+			return SCHEDULE;
+		}
+
+		private PendingNotification poll() {
+			synchronized (this) {
+				PendingNotification notification = pending;
+				pending = null;
+				if(notification != null) {
+					return notification;
+				}
+				scheduled = false;
+				retired = true;
+			}
+			mailboxes.remove(key, this);
+			return null;
+		}
+
+		private void discard() {
+			synchronized (this) {
+				if(pending != null) {
+					statistics.superseded();
+				}
+				pending = null;
+				scheduled = false;
+				retired = true;
+			}
+			mailboxes.remove(key, this);
+		}
+
+		public void run() {
+			PendingNotification notification;
+			while( (notification = poll()) != null ) {
+				long startTime = System.nanoTime();
+				statistics.started(startTime - notification.submitTime);
+				IReloadEvent event = ReloadEvents.dispatch(id, listenerName);
+				try {
+					notification.task.run();
+				} catch (Throwable e) {
+					logger.error("Listener <" + listenerName + "> received an uncaught exception", e);
+				} finally {
+					event.commit();
+					long executionTime = System.nanoTime() - startTime;
+					statistics.executed(listenerName, executionTime);
+					if(executionTime > threshold) {
+						logger.warn("Slow listener <" + listenerName + ">: " + TimeUnit.NANOSECONDS.toMillis(executionTime) + " ms.");
+					}
+				}
+			}
+		}
+	}
+
+	private static class PendingNotification {
+
+		private Runnable task;
+		private long submitTime;
+
+		private PendingNotification(Runnable task, long submitTime) {
+			this.task = task;
+			this.submitTime = submitTime;
+		}
+	}
+
+	private static class MailboxKey {
+
+		private String id;
+		private IConfigurationChangeListener listener;
+
+		private MailboxKey(String id, IConfigurationChangeListener listener) {
+			this.id = id;
+			this.listener = listener;
+		}
+
+		@Override
+		public int hashCode() {
+			return ( 31 * id.hashCode() + System.identityHashCode(listener) );
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if( !(obj instanceof MailboxKey) ) {
+				return false;
+			}
+			MailboxKey other = (MailboxKey)obj;
+			return ( id.equals(other.id) && listener == other.listener );
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * @(#)ListenerRegistry.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ *    Keeps the listeners subscribed to the configuration ids.
+ * </p>
+ *
+ * <p>
+ *    Any number of listeners can subscribe to the same id. A subscription
+ *    pattern ending with {@link #WILDCARD} matches all the ids starting with
+ *    the rest of the pattern, so <em>db.*</em> matches <em>db.primary</em>
+ *    and <em>*</em> matches every id.
+ * </p>
+ *
+ * <p>
+ *    Listeners can be registered and unregistered at any time from any
+ *    thread. Lookups take no lock.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ListenerRegistry {
+
+	public static final String WILDCARD = "*";
+
+	private ConcurrentHashMap<String, CopyOnWriteArrayList<IConfigurationChangeListener>> idListeners;
+	private CopyOnWriteArrayList<PrefixSubscription> prefixListeners;
+
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 */
+	public ListenerRegistry() {
+		idListeners = new ConcurrentHashMap<String, CopyOnWriteArrayList<IConfigurationChangeListener>>();
+		prefixListeners = new CopyOnWriteArrayList<PrefixSubscription>();
+	}
+
+	/**
+	 * <p>
+	 *    Subscribe <em>listener</em> to the ids matching <em>idPattern</em>.
+	 *    Subscribing the same listener twice to the same pattern has no
+	 *    effect.
+	 * </p>
+	 *
+	 * @param idPattern a configuration id or a pattern ending with
+	 *                  {@link #WILDCARD}
+	 * @param listener the listener
+	 */
+	public void register(String idPattern, IConfigurationChangeListener listener) {
+		if(isPattern(idPattern)) {
+			prefixListeners.addIfAbsent(new PrefixSubscription(prefixOf(idPattern), listener));
+		} else {
+			CopyOnWriteArrayList<IConfigurationChangeListener> listeners = idListeners.get(idPattern);
+			if(listeners == null) {
+				CopyOnWriteArrayList<IConfigurationChangeListener> newListeners = new CopyOnWriteArrayList<IConfigurationChangeListener>();
+				listeners = idListeners.putIfAbsent(idPattern, newListeners);
+				if(listeners == null) {
+					listeners = newListeners;
+				}
+			}
+			listeners.addIfAbsent(listener);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Remove the subscription of <em>listener</em> to <em>idPattern</em>.
+	 * </p>
+	 *
+	 * @param idPattern the pattern used for registering the listener
+	 * @param listener the listener
+	 * @return <em>true</em> if the subscription existed
+	 */
+	public boolean unregister(String idPattern, IConfigurationChangeListener listener) {
+		if(isPattern(idPattern)) {
+			return prefixListeners.remove(new PrefixSubscription(prefixOf(idPattern), listener));
+		}
+
+		CopyOnWriteArrayList<IConfigurationChangeListener> listeners = idListeners.get(idPattern);
+		return ( (listeners != null) && listeners.remove(listener) );
+	}
+
+	/**
+	 * <p>
+	 *    Returns the listeners subscribed to <em>id</em>: the ones registered
+	 *    for the id first, then the ones registered with a matching pattern,
+	 *    each group in registration order. A listener matching more than once
+	 *    is returned once.
+	 * </p>
+	 *
+	 * @param id the configuration id
+	 * @return the listeners subscribed to the id
+	 */
+	public List<IConfigurationChangeListener> getListeners(String id) {
+		List<IConfigurationChangeListener> listeners = idListeners.get(id);
+		if(prefixListeners.isEmpty()) {
+			return ( (listeners != null)? listeners : Collections.<IConfigurationChangeListener>emptyList() );
+		}
+
+		List<IConfigurationChangeListener> matching = new ArrayList<IConfigurationChangeListener>();
+		if(listeners != null) {
+			matching.addAll(listeners);
+		}
+		for (PrefixSubscription aSubscription : prefixListeners) {
+			if( id.startsWith(aSubscription.prefix) && !matching.contains(aSubscription.listener) ) {
+				matching.add(aSubscription.listener);
+			}
+		}
+		return matching;
+	}
+
+	/**
+	 * <p>
+	 *    Returns <em>true</em> if <em>id</em> matches <em>idPattern</em>.
+	 * </p>
+	 *
+	 * @param idPattern a configuration id or a pattern ending with
+	 *                  {@link #WILDCARD}
+	 * @param id the configuration id
+	 * @return <em>true</em> if the id matches the pattern
+	 */
+	public static boolean matches(String idPattern, String id) {
+		return ( isPattern(idPattern)? id.startsWith(prefixOf(idPattern)) : id.equals(idPattern) );
+	}
+
+	@Override
+	public String toString() {
+		return "ListenerRegistry [idListeners=" + idListeners + ", prefixListeners=" + prefixListeners + "]";
+	}
+
+	private static boolean isPattern(String idPattern) {
+		return idPattern.endsWith(WILDCARD);
+	}
+
+	private static String prefixOf(String idPattern) {
+		return idPattern.substring(0, idPattern.length() - WILDCARD.length());
+	}
+
+	private static class PrefixSubscription {
+
+		private String prefix;
+		private IConfigurationChangeListener listener;
+
+		private PrefixSubscription(String prefix, IConfigurationChangeListener listener) {
+			this.prefix = prefix;
+			this.listener = listener;
+		}
+
+		@Override
+		public int hashCode() {
+			return ( 31 * prefix.hashCode() + System.identityHashCode(listener) );
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if( !(obj instanceof PrefixSubscription) ) {
+				return false;
+			}
+			PrefixSubscription other = (PrefixSubscription)obj;
+			return ( prefix.equals(other.prefix) && listener == other.listener );
+		}
+
+		@Override
+		public String toString() {
+			return prefix + WILDCARD + "=" + listener;
+		}
+	}
+}
@@ -20,27 +20,63 @@
 package com.google.code.jconfig.model;
 
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
  *   Represent a simple configuration with its id and properties.
+ *   A configuration can't be modified once built.
  * <p>
  *
+ * <p>
+ *   Besides the raw values, the properties can be read as numbers, booleans,
+ *   durations, sizes and lists. Every value is converted to all these types
+ *   when the configuration is built, so the typed accessors just return the
+ *   result. A plain number is read as milliseconds by the duration
+ *   accessors and as bytes by the size accessors. Durations take the
+ *   suffixes <em>ns</em>, <em>us</em>, <em>ms</em>, <em>s</em>,
+ *   <em>m</em>, <em>h</em> and <em>d</em>. Sizes are multiples of 1024 and
+ *   take the suffixes <em>b</em>, <em>k</em>, <em>m</em>, <em>g</em> and
+ *   <em>t</em>, optionally followed by <em>b</em> or <em>ib</em>. Lists
+ *   are comma separated.
+ * </p>
+ *
+ * <p>
+ *   The properties are kept in a compact open addressing table, so even
+ *   configurations with hundreds of thousands of properties retain little
+ *   more than the keys and values themselves.
+ * </p>
+ *
+ * <p>
+ *   The keys are dotted paths, such as <em>db.primary.url</em>. The
+ *   properties under a prefix are found through a sorted index of the keys,
+ *   and {@link #subset(String)} returns the configuration under a path with
+ *   its own table, sharing the values and their conversions.
+ * </p>
+ *
  * @author: Gabriele Fedeli (gabriele.fedeli@gmail.com)
  */
 public class BasicConfiguration {
 
-	private Map<String, String> properties;
+	public static final String KEY_SEPARATOR = ".";
+
+	private PropertyTable properties;
 		
 	/**
 	 * <p>
 	 *    Construct a configuration instance with its properties.
 	 * </p>
 	 * 
-	 * @param properties the properties of this configuration.
+	 * @param properties the properties of this configuration, copied.
 	 */
 	public BasicConfiguration(Map<String, String> properties) {
+		this.properties = ( (properties != null)? new PropertyTable(properties) : null );
+	}
+	
+	private BasicConfiguration(PropertyTable properties) {
 		this.properties = properties;
 	}
 	
@@ -58,14 +94,273 @@ public class BasicConfiguration {
 		return ( (properties != null)? properties.get(key) : null );
 	}
 	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as an int.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param defaultValue returned if the key doesn't exist or its value
+	 *                     isn't an int
+	 * @return the value associated to <em>key</em> as an int
+	 */
+	public int getInt(String key, int defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.INT);
+		return ( (value != null)? (int)value.longValue : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as an int.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return the value associated to <em>key</em> as an int
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't an int
+	 */
+	public int getInt(String key) {
+		return (int)requiredValueOf(key, PropertyValue.INT, "an int").longValue;
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a long.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param defaultValue returned if the key doesn't exist or its value
+	 *                     isn't a long
+	 * @return the value associated to <em>key</em> as a long
+	 */
+	public long getLong(String key, long defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.LONG);
+		return ( (value != null)? value.longValue : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a long.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return the value associated to <em>key</em> as a long
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't a long
+	 */
+	public long getLong(String key) {
+		return requiredValueOf(key, PropertyValue.LONG, "a long").longValue;
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a double, written in
+	 *    decimal notation with an optional exponent.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param defaultValue returned if the key doesn't exist or its value
+	 *                     isn't a number
+	 * @return the value associated to <em>key</em> as a double
+	 */
+	public double getDouble(String key, double defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.DOUBLE);
+		return ( (value != null)? value.doubleValue : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a double, written in
+	 *    decimal notation with an optional exponent.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return the value associated to <em>key</em> as a double
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't a number
+	 */
+	public double getDouble(String key) {
+		return requiredValueOf(key, PropertyValue.DOUBLE, "a number").doubleValue;
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a boolean: <em>true</em> or
+	 *    <em>false</em>, in any case.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param defaultValue returned if the key doesn't exist or its value
+	 *                     isn't a boolean
+	 * @return the value associated to <em>key</em> as a boolean
+	 */
+	public boolean getBoolean(String key, boolean defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.BOOLEAN);
+		return ( (value != null)? value.booleanValue : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a boolean: <em>true</em> or
+	 *    <em>false</em>, in any case.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return the value associated to <em>key</em> as a boolean
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't a boolean
+	 */
+	public boolean getBoolean(String key) {
+		return requiredValueOf(key, PropertyValue.BOOLEAN, "a boolean").booleanValue;
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a duration, such as
+	 *    <em>30s</em> or <em>500ms</em>.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param unit the unit of the duration returned
+	 * @param defaultValue returned, in <em>unit</em>, if the key doesn't
+	 *                     exist or its value isn't a duration
+	 * @return the value associated to <em>key</em> in <em>unit</em>
+	 */
+	public long getDuration(String key, TimeUnit unit, long defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.DURATION);
+		return ( (value != null)? unit.convert(value.durationNanos, TimeUnit.NANOSECONDS) : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a duration, such as
+	 *    <em>30s</em> or <em>500ms</em>.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param unit the unit of the duration returned
+	 * @return the value associated to <em>key</em> in <em>unit</em>
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't a duration
+	 */
+	public long getDuration(String key, TimeUnit unit) {
+		return unit.convert(requiredValueOf(key, PropertyValue.DURATION, "a duration").durationNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a size in bytes, such as
+	 *    <em>64k</em> or <em>2GB</em>.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @param defaultValue returned if the key doesn't exist or its value
+	 *                     isn't a size
+	 * @return the value associated to <em>key</em> in bytes
+	 */
+	public long getBytes(String key, long defaultValue) {
+		PropertyValue value = valueOf(key, PropertyValue.BYTES);
+		return ( (value != null)? value.bytes : defaultValue );
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a size in bytes, such as
+	 *    <em>64k</em> or <em>2GB</em>.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return the value associated to <em>key</em> in bytes
+	 * @throws IllegalArgumentException if the key doesn't exist or its value
+	 *                                  isn't a size
+	 */
+	public long getBytes(String key) {
+		return requiredValueOf(key, PropertyValue.BYTES, "a size").bytes;
+	}
+	
+	/**
+	 * <p>
+	 *    The value associated to <em>key</em> as a list of comma separated
+	 *    items, trimmed. Empty items are skipped.
+	 * </p>
+	 * 
+	 * @param key the property identifier
+	 * @return an unmodifiable list of the items, empty if the key doesn't
+	 *         exist
+	 */
+	public List<String> getList(String key) {
+		if(properties == null) {
+			return Collections.emptyList();
+		}
+		PropertyValue value = properties.getConverted(key);
+		return ( (value != null)? value.list : PropertyValue.listOf(properties.get(key)) );
+	}
+	
 	/**
 	 * <p>
 	 *    Return the properties of this configuration.
 	 * </p>
 	 * 
-	 * @return a cloned version of the properties of this configuration.
+	 * @return an unmodifiable view of the properties of this configuration.
 	 */
 	public Map<String, String> getProperties() {
-		return properties;
+		if(properties == null) {
+			return null;
+		}
+		return properties.asMap();
+	}
+	
+	/**
+	 * <p>
+	 *    Return the properties of this configuration whose key starts with
+	 *    <em>keyPrefix</em>, sorted by key.
+	 * </p>
+	 * 
+	 * @param keyPrefix the start of the keys, such as <em>db.primary.</em>
+	 * @return an unmodifiable view of the properties whose key starts with
+	 *         <em>keyPrefix</em>.
+	 */
+	public Map<String, String> getProperties(String keyPrefix) {
+		if(properties == null) {
+			return Collections.emptyMap();
+		}
+		return properties.prefixMap(keyPrefix, 0);
+	}
+	
+	/**
+	 * <p>
+	 *    Return the configuration under <em>path</em>: the properties whose
+	 *    key starts with <em>path</em> followed by {@link #KEY_SEPARATOR},
+	 *    without this part of the key. The subset of <em>db</em> maps
+	 *    <em>primary.url</em> to the value of <em>db.primary.url</em>.
+	 * </p>
+	 * 
+	 * <p>
+	 *    The properties of the subset are found once, when it's created: its
+	 *    reads cost as much as the reads of this configuration. The values
+	 *    and their conversions are shared, not copied.
+	 * </p>
+	 * 
+	 * @param path the path of the subset, such as <em>db.primary</em>
+	 * @return the configuration under <em>path</em>.
+	 */
+	public BasicConfiguration subset(String path) {
+		return new BasicConfiguration( (properties != null)? properties.subTable(path + KEY_SEPARATOR) : null );
+	}
+	
+	private PropertyValue valueOf(String key, int type) {
+		PropertyValue value = ( (properties != null)? properties.getConverted(key) : null );
+		return ( ((value != null) && value.is(type))? value : null );
+	}
+	
+	private PropertyValue requiredValueOf(String key, int type, String typeName) {
+		if( (properties == null) || !properties.containsKey(key) ) {
+			throw new IllegalArgumentException("Property <" + key + "> not found.");
+		}
+		PropertyValue value = properties.getConverted(key);
+		if( (value == null) || !value.is(type) ) {
+			throw new IllegalArgumentException("Property <" + key + "> is not " + typeName + ": " + properties.get(key));
+		}
+		return value;
 	}
 }
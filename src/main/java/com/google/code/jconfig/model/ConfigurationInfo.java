@@ -38,6 +38,8 @@ import com.google.code.jconfig.reader.IConfigurationReader;
 public class ConfigurationInfo {
 
 	private Map<String, Object> configurationMap;
+	private Map<String, Long> fingerprintMap;
+	private Map<String, String> pluginMap;
 	private List<String> confFileList;
 	
 	/**
@@ -79,6 +81,56 @@ public class ConfigurationInfo {
 	public void addConfigurationDetail(String id, Object configuration) {
 		getConfigurationMap().put(id, configuration);
 	}
+	
+	/**
+	 * <p>
+	 *    Add a configuration to the configuration map, together with the
+	 *    plugin that built it and the fingerprint of the configuration
+	 *    fragment it was built from.
+	 *    If the configuration map alredy contains a configuration with the same
+	 *    id, then the existing configuration will be overwritten.  
+	 * </p>
+	 * 
+	 * @param id an identification
+	 * @param pluginClass the full name of the plugin class
+	 * @param configuration the configuration to be added
+	 * @param fingerprint the fingerprint of the configuration fragment
+	 */
+	public void addConfigurationDetail(String id, String pluginClass, Object configuration, long fingerprint) {
+		getConfigurationMap().put(id, configuration);
+		getPluginMap().put(id, pluginClass);
+		getFingerprintMap().put(id, fingerprint);
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the fingerprints of the configuration fragments, by
+	 *    configuration id.
+	 * </p>
+	 * 
+	 * @return the fingerprint map
+	 */
+	public Map<String, Long> getFingerprintMap() {
+		if(fingerprintMap == null) {
+			fingerprintMap = new HashMap<String, Long>();
+		}
+		return fingerprintMap;
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the full name of the plugin classes that built the
+	 *    configurations, by configuration id.
+	 * </p>
+	 * 
+	 * @return the plugin map
+	 */
+	public Map<String, String> getPluginMap() {
+		if(pluginMap == null) {
+			pluginMap = new HashMap<String, String>();
+		}
+		return pluginMap;
+	}
 
 	/**
 	 * <p>
@@ -125,6 +177,8 @@ public class ConfigurationInfo {
 	 */
 	public void add(ConfigurationInfo configurationInfo) {
 		getConfigurationMap().putAll(configurationInfo.getConfigurationMap());
+		getFingerprintMap().putAll(configurationInfo.getFingerprintMap());
+		getPluginMap().putAll(configurationInfo.getPluginMap());
 		getConfFileList().addAll(configurationInfo.getConfFileList());
 	}
 	
@@ -141,5 +195,13 @@ public class ConfigurationInfo {
 		if(configurationMap != null) {
 			configurationMap.clear();
 		}
+		
+		if(fingerprintMap != null) {
+			fingerprintMap.clear();
+		}
+		
+		if(pluginMap != null) {
+			pluginMap.clear();
+		}
 	}
 }
@@ -0,0 +1,170 @@
+/*
+ * @(#)ConfigurationSnapshot.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * <p>
+ *    An immutable view of the whole configuration at a given reload.
+ * </p>
+ *
+ * <p>
+ *    A snapshot is never modified once built: a reload builds a new one and
+ *    publishes it in a single step, so it can be read from any thread
+ *    without locking and never shows a partially loaded configuration.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public final class ConfigurationSnapshot {
+
+	/**
+	 * The snapshot of a configuration not loaded yet.
+	 */
+	public static final ConfigurationSnapshot EMPTY = new ConfigurationSnapshot(new ConfigurationInfo());
+
+	private final Map<String, Object> configurationMap;
+	private final Map<String, Long> fingerprintMap;
+	private final Map<String, String> pluginMap;
+	private final List<String> confFileList;
+
+	/**
+	 * <p>
+	 *    Build a snapshot copying the content of <em>configurationInfo</em>.
+	 * </p>
+	 *
+	 * @param configurationInfo the configuration just read
+	 */
+	public ConfigurationSnapshot(ConfigurationInfo configurationInfo) {
+		configurationMap = Collections.unmodifiableMap(new HashMap<String, Object>(configurationInfo.getConfigurationMap()));
+		fingerprintMap = Collections.unmodifiableMap(new HashMap<String, Long>(configurationInfo.getFingerprintMap()));
+		pluginMap = Collections.unmodifiableMap(new HashMap<String, String>(configurationInfo.getPluginMap()));
+		confFileList = Collections.unmodifiableList(new ArrayList<String>(new LinkedHashSet<String>(configurationInfo.getConfFileList())));
+	}
+
+	/**
+	 * <p>
+	 *    Returns the configuration associated to <em>id</em> or <em>null</em>
+	 *    if there's no configuration with that id.
+	 * </p>
+	 *
+	 * @param id the configuration identifier
+	 * @return the configuration or <em>null</em>
+	 */
+	public Object get(String id) {
+		return configurationMap.get(id);
+	}
+
+	/**
+	 * <p>
+	 *    Returns the configuration associated to <em>id</em> or <em>null</em>
+	 *    if there's no configuration with that id.
+	 * </p>
+	 *
+	 * @param id the configuration identifier
+	 * @param type the expected type of the configuration
+	 * @return the configuration or <em>null</em>
+	 * @throws ClassCastException if the configuration is not of type
+	 *                            <em>type</em>
+	 */
+	public <T> T get(String id, Class<T> type) {
+		return type.cast(configurationMap.get(id));
+	}
+
+	/**
+	 * <p>
+	 *    Returns the configurations of <em>configurationInfo</em> that are new
+	 *    or changed compared to this snapshot, by configuration id. A
+	 *    configuration is changed if the fingerprint of its xml fragment is;
+	 *    one without a fingerprint is always considered changed.
+	 * </p>
+	 *
+	 * @param configurationInfo the configuration just read
+	 * @return the new and changed configurations
+	 */
+	public Map<String, Object> getChanges(ConfigurationInfo configurationInfo) {
+		Map<String, Object> changes = new HashMap<String, Object>();
+		Map<String, Long> newFingerprintMap = configurationInfo.getFingerprintMap();
+		for (Entry<String, Object> aNewConfEntry : configurationInfo.getConfigurationMap().entrySet()) {
+			String key = aNewConfEntry.getKey();
+			Long newFingerprint = newFingerprintMap.get(key);
+			if( (newFingerprint == null) || !newFingerprint.equals(fingerprintMap.get(key)) ) {
+				changes.put(key, aNewConfEntry.getValue());
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the unmodifiable configuration map.
+	 * </p>
+	 *
+	 * @return the configuration map
+	 */
+	public Map<String, Object> getConfigurationMap() {
+		return configurationMap;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the unmodifiable map of the configuration fragment
+	 *    fingerprints, by configuration id.
+	 * </p>
+	 *
+	 * @return the fingerprint map
+	 */
+	public Map<String, Long> getFingerprintMap() {
+		return fingerprintMap;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the unmodifiable map of the plugin classes that built the
+	 *    configurations, by configuration id.
+	 * </p>
+	 *
+	 * @return the plugin map
+	 */
+	public Map<String, String> getPluginMap() {
+		return pluginMap;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the unmodifiable list of all the configuration files parsed,
+	 *    each one once even if imported several times.
+	 * </p>
+	 *
+	 * @return the list of all the configuration files
+	 */
+	public List<String> getConfFileList() {
+		return confFileList;
+	}
+}
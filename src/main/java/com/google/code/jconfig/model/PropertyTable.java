@@ -0,0 +1,404 @@
+/*
+ * @(#)PropertyTable.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ *    The immutable property store of a {@link BasicConfiguration}: the
+ *    properties are kept in arrays indexed by entry, every key next to its
+ *    value, and found through an open addressing hash table with linear
+ *    probing holding entry indexes. It costs a few references and an int
+ *    per property instead of an entry object, and the table is at most three
+ *    quarters full, so a lookup usually probes a single slot.
+ * </p>
+ *
+ * <p>
+ *    The typed conversions of a value are made when the table is built and
+ *    kept only if it can be converted to something other than a string, so
+ *    a table of plain strings holds no {@link PropertyValue}.
+ * </p>
+ *
+ * <p>
+ *    The keys are also kept sorted, so the properties under a key prefix are
+ *    found with a binary search and read without scanning the table.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+final class PropertyTable {
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// the key of entry i is at 2 * i, its value at 2 * i + 1
+	private final String[] entries;
+	private final PropertyValue[] converted;
+	// entry index + 1 of the key hashed to a slot, 0 for an empty slot
+	private final int[] slots;
+	private final String[] sortedKeys;
+	private final int mask;
+	private final int shift;
+	private final int size;
+	// HashMap allowed a null key, so the table does too
+	private final boolean hasNullKey;
+	private final String nullKeyValue;
+	private final PropertyValue nullKeyConverted;
+	private final Map<String, String> map = new TableMap();
+
+	PropertyTable(Map<String, String> properties) {
+		String[] keyValues = new String[properties.size() * 2];
+		PropertyValue[] conversions = new PropertyValue[properties.size()];
+		slots = new int[capacityFor(properties.size())];
+		mask = slots.length - 1;
+		shift = Integer.numberOfLeadingZeros(mask);
+
+		boolean nullKey = false;
+		String nullValue = null;
+		String[] keys = new String[properties.size()];
+		int entry = 0;
+		for (Map.Entry<String, String> anEntry : properties.entrySet()) {
+			String key = anEntry.getKey();
+			if(key == null) {
+				nullKey = true;
+				nullValue = anEntry.getValue();
+				continue;
+			}
+			keys[entry] = key;
+			keyValues[entry << 1] = key;
+			keyValues[(entry << 1) + 1] = anEntry.getValue();
+			conversions[entry] = convert(anEntry.getValue());
+			insert(key, entry++);
+		}
+		hasNullKey = nullKey;
+		nullKeyValue = nullValue;
+		nullKeyConverted = nullKey? convert(nullValue) : null;
+		size = properties.size();
+		// the null key takes no entry
+		entries = ( (entry < keys.length)? Arrays.copyOf(keyValues, entry << 1) : keyValues );
+		converted = ( (entry < keys.length)? Arrays.copyOf(conversions, entry) : conversions );
+		sortedKeys = ( (entry < keys.length)? Arrays.copyOf(keys, entry) : keys );
+		Arrays.sort(sortedKeys);
+	}
+
+	/*
+	 * The table of the sorted keys from to to of table, missing their first
+	 * stripLength characters. The values and their conversions are shared.
+	 */
+	private PropertyTable(PropertyTable table, int from, int to, int stripLength) {
+		int count = to - from;
+		entries = new String[count << 1];
+		converted = new PropertyValue[count];
+		sortedKeys = new String[count];
+		slots = new int[capacityFor(count)];
+		mask = slots.length - 1;
+		shift = Integer.numberOfLeadingZeros(mask);
+		for(int entry = 0; entry < count; entry++) {
+			String fullKey = table.sortedKeys[from + entry];
+			int tableEntry = table.indexOf(fullKey);
+			// keys sharing a prefix stay sorted without it
+			String key = fullKey.substring(stripLength);
+			sortedKeys[entry] = key;
+			entries[entry << 1] = key;
+			entries[(entry << 1) + 1] = table.entries[(tableEntry << 1) + 1];
+			converted[entry] = table.converted[tableEntry];
+			insert(key, entry);
+		}
+		hasNullKey = false;
+		nullKeyValue = null;
+		nullKeyConverted = null;
+		size = count;
+	}
+
+	/*
+	 * Returns the raw value of key, null if missing.
+	 */
+	String get(String key) {
+		if(key == null) {
+			return nullKeyValue;
+		}
+		int entry = indexOf(key);
+		return ( (entry >= 0)? entries[(entry << 1) + 1] : null );
+	}
+
+	/*
+	 * Returns the conversions of the value of key, null if the key is
+	 * missing or its value is only a string.
+	 */
+	PropertyValue getConverted(String key) {
+		if(key == null) {
+			return nullKeyConverted;
+		}
+		int entry = indexOf(key);
+		return ( (entry >= 0)? converted[entry] : null );
+	}
+
+	boolean containsKey(String key) {
+		return ( (key == null)? hasNullKey : (indexOf(key) >= 0) );
+	}
+
+	Map<String, String> asMap() {
+		return map;
+	}
+
+	/*
+	 * Returns an unmodifiable view of the properties whose key starts with
+	 * prefix, sorted by key. The keys of the view are missing their first
+	 * stripLength characters.
+	 */
+	Map<String, String> prefixMap(String prefix, int stripLength) {
+		int from = firstIndexOf(prefix);
+		return new PrefixMap(prefix, stripLength, from, endIndexOf(prefix, from));
+	}
+
+	/*
+	 * Returns the table of the properties whose key starts with prefix,
+	 * without prefix in their keys.
+	 */
+	PropertyTable subTable(String prefix) {
+		int from = firstIndexOf(prefix);
+		return new PropertyTable(this, from, endIndexOf(prefix, from), prefix.length());
+	}
+
+	/*
+	 * Returns the index of the first sorted key starting with prefix, if any.
+	 */
+	private int firstIndexOf(String prefix) {
+		int from = Arrays.binarySearch(sortedKeys, prefix);
+		return ( (from < 0)? -from - 1 : from );
+	}
+
+	/*
+	 * Returns the index after the last sorted key starting with prefix: they
+	 * follow each other from the first one.
+	 */
+	private int endIndexOf(String prefix, int from) {
+		int low = from;
+		int high = sortedKeys.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sortedKeys[middle].startsWith(prefix)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static int capacityFor(int size) {
+		int capacity = 2;
+		while(capacity * LOAD_FACTOR < size) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static PropertyValue convert(String value) {
+		PropertyValue conversions = new PropertyValue(value);
+		return ( (conversions.types != 0) || (conversions.list.size() > 1) )? conversions : null;
+	}
+
+	private void insert(String key, int entry) {
+		int index = indexFor(key);
+		while(slots[index] != 0) {
+			index = (index + 1) & mask;
+		}
+		slots[index] = entry + 1;
+	}
+
+	/*
+	 * Returns the entry index of key, -1 if missing.
+	 */
+	private int indexOf(String key) {
+		int index = indexFor(key);
+		int slot;
+		while( (slot = slots[index]) != 0 ) {
+			String candidate = entries[(slot - 1) << 1];
+			if( (candidate == key) || candidate.equals(key) ) {
+				return slot - 1;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/*
+	 * Keys like "route.1", "route.2" have consecutive hash codes: taking the
+	 * high bits of the hash times the golden ratio scatters them, instead of
+	 * filling runs of adjacent slots that linear probing would walk through.
+	 */
+	private int indexFor(String key) {
+		return ( (key.hashCode() * 0x9E3779B9) >>> shift );
+	}
+
+	/*
+	 * An unmodifiable map view of the table.
+	 */
+	private class TableMap extends AbstractMap<String, String> {
+
+		private Set<Map.Entry<String, String>> entrySet = new AbstractSet<Map.Entry<String, String>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+
+		@Override
+		public Set<Map.Entry<String, String>> entrySet() {
+			return entrySet;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public String get(Object key) {
+			return ( ((key == null) || (key instanceof String))? PropertyTable.this.get((String)key) : null );
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			if(key == null) {
+				return hasNullKey;
+			}
+			return ( (key instanceof String) && (indexOf((String)key) >= 0) );
+		}
+	}
+
+	/*
+	 * An unmodifiable map view of a range of the sorted keys.
+	 */
+	private class PrefixMap extends AbstractMap<String, String> {
+
+		private String prefix;
+		private String stripped;
+		private int from;
+		private int to;
+
+		private PrefixMap(String prefix, int stripLength, int from, int to) {
+			this.prefix = prefix;
+			this.stripped = prefix.substring(0, stripLength);
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Set<Map.Entry<String, String>> entrySet() {
+			return new AbstractSet<Map.Entry<String, String>>() {
+
+				@Override
+				public Iterator<Map.Entry<String, String>> iterator() {
+					return new Iterator<Map.Entry<String, String>>() {
+
+						private int index = from;
+
+						public boolean hasNext() {
+							return ( index < to );
+						}
+
+						public Map.Entry<String, String> next() {
+							if(index >= to) {
+								throw new NoSuchElementException();
+							}
+							String key = sortedKeys[index++];
+							return new AbstractMap.SimpleImmutableEntry<String, String>(key.substring(stripped.length()), PropertyTable.this.get(key));
+						}
+
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return ( to - from );
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ( to - from );
+		}
+
+		@Override
+		public String get(Object key) {
+			String fullKey = fullKey(key);
+			return ( (fullKey != null)? PropertyTable.this.get(fullKey) : null );
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			String fullKey = fullKey(key);
+			return ( (fullKey != null) && (indexOf(fullKey) >= 0) );
+		}
+
+		private String fullKey(Object key) {
+			if( !(key instanceof String) ) {
+				return null;
+			}
+			String fullKey = stripped + key;
+			return ( fullKey.startsWith(prefix)? fullKey : null );
+		}
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+		private int entry = 0;
+		private boolean nullKeyReturned = !hasNullKey;
+
+		public boolean hasNext() {
+			return ( !nullKeyReturned || (entry < converted.length) );
+		}
+
+		public Map.Entry<String, String> next() {
+			if( !nullKeyReturned ) {
+				nullKeyReturned = true;
+				return new AbstractMap.SimpleImmutableEntry<String, String>(null, nullKeyValue);
+			}
+			if(entry >= converted.length) {
+				throw new NoSuchElementException();
+			}
+			int index = entry++ << 1;
+			return new AbstractMap.SimpleImmutableEntry<String, String>(entries[index], entries[index + 1]);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * @(#)PropertyValue.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    A property value of a {@link BasicConfiguration}, converted once to
+ *    every type it can be read as. The conversions are kept in primitive
+ *    fields, so reading them neither parses nor boxes.
+ * </p>
+ *
+ * <p>
+ *    The characters are checked before parsing, so a value that isn't a
+ *    number costs a scan rather than a thrown exception. The instances are
+ *    immutable and can be shared between threads without synchronization.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+final class PropertyValue {
+
+	static final int LONG = 1;
+	static final int INT = 2;
+	static final int DOUBLE = 4;
+	static final int BOOLEAN = 8;
+	static final int DURATION = 16;
+	static final int BYTES = 32;
+
+	private static final String LIST_SEPARATOR = ",";
+
+	final String raw;
+	final int types;
+	final long longValue;
+	final double doubleValue;
+	final boolean booleanValue;
+	final long durationNanos;
+	final long bytes;
+	final List<String> list;
+
+	PropertyValue(String raw) {
+		this.raw = raw;
+		int convertedTypes = 0;
+		long parsedLong = 0L;
+		double parsedDouble = 0.0;
+		boolean parsedBoolean = false;
+		long parsedDuration = 0L;
+		long parsedBytes = 0L;
+
+		String value = (raw != null)? raw.trim() : "";
+		if(value.length() > 0) {
+			if( isInteger(value) ) {
+				try {
+					parsedLong = Long.parseLong(value);
+					convertedTypes |= LONG;
+					if( (parsedLong >= Integer.MIN_VALUE) && (parsedLong <= Integer.MAX_VALUE) ) {
+						convertedTypes |= INT;
+					}
+				} catch (NumberFormatException e) {
+					// too many digits for a long
+				}
+			}
+			if( isDecimal(value) ) {
+				parsedDouble = Double.parseDouble(value);
+				convertedTypes |= DOUBLE;
+			}
+			if( value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false") ) {
+				parsedBoolean = Boolean.parseBoolean(value);
+				convertedTypes |= BOOLEAN;
+			}
+
+			int unitStart = skipDigits(value, 0);
+			if(unitStart > 0) {
+				long amount = parseAmount(value, unitStart);
+				String unit = value.substring(unitStart).trim().toLowerCase(Locale.ENGLISH);
+				if(amount >= 0) {
+					long nanos = durationNanos(amount, unit);
+					if(nanos >= 0) {
+						parsedDuration = nanos;
+						convertedTypes |= DURATION;
+					}
+					long size = bytes(amount, unit);
+					if(size >= 0) {
+						parsedBytes = size;
+						convertedTypes |= BYTES;
+					}
+				}
+			}
+		}
+
+		types = convertedTypes;
+		longValue = parsedLong;
+		doubleValue = parsedDouble;
+		booleanValue = parsedBoolean;
+		durationNanos = parsedDuration;
+		bytes = parsedBytes;
+		list = listOf(raw);
+	}
+
+	boolean is(int type) {
+		return ( (types & type) != 0 );
+	}
+
+	/*
+	 * The index of the first character from index on that isn't an ASCII
+	 * digit.
+	 */
+	private static int skipDigits(String value, int index) {
+		while( (index < value.length()) && (value.charAt(index) >= '0') && (value.charAt(index) <= '9') ) {
+			index++;
+		}
+		return index;
+	}
+
+	private static int skipSign(String value, int index) {
+		if( (index < value.length()) && ((value.charAt(index) == '+') || (value.charAt(index) == '-')) ) {
+			index++;
+		}
+		return index;
+	}
+
+	/*
+	 * An optional sign followed by digits.
+	 */
+	private static boolean isInteger(String value) {
+		int digitsStart = skipSign(value, 0);
+		int digitsEnd = skipDigits(value, digitsStart);
+		return ( (digitsEnd > digitsStart) && (digitsEnd == value.length()) );
+	}
+
+	/*
+	 * A number in decimal notation, with an optional fraction and exponent:
+	 * the values Double.parseDouble reads without an exception, but for the
+	 * hexadecimal notation, NaN, Infinity and the type suffixes such as the
+	 * "d" of "1d", that is a duration here.
+	 */
+	private static boolean isDecimal(String value) {
+		int index = skipSign(value, 0);
+		int integerEnd = skipDigits(value, index);
+		int digits = integerEnd - index;
+		index = integerEnd;
+		if( (index < value.length()) && (value.charAt(index) == '.') ) {
+			int fractionEnd = skipDigits(value, index + 1);
+			digits += fractionEnd - index - 1;
+			index = fractionEnd;
+		}
+		if(digits == 0) {
+			return false;
+		}
+		if( (index < value.length()) && ((value.charAt(index) == 'e') || (value.charAt(index) == 'E')) ) {
+			int exponentStart = skipSign(value, index + 1);
+			index = skipDigits(value, exponentStart);
+			if(index == exponentStart) {
+				return false;
+			}
+		}
+		return ( index == value.length() );
+	}
+
+	private static long parseAmount(String value, int end) {
+		try {
+			return Long.parseLong(value.substring(0, end));
+		} catch (NumberFormatException e) {
+			// too many digits for a long
+			return -1L;
+		}
+	}
+
+	/*
+	 * A plain number is in milliseconds. Returns -1 for an unknown unit or an
+	 * overflow.
+	 */
+	private static long durationNanos(long amount, String unit) {
+		TimeUnit timeUnit;
+		if( unit.equals("ns") ) {
+			timeUnit = TimeUnit.NANOSECONDS;
+		} else if( unit.equals("us") ) {
+			timeUnit = TimeUnit.MICROSECONDS;
+		} else if( unit.equals("ms") || (unit.length() == 0) ) {
+			timeUnit = TimeUnit.MILLISECONDS;
+		} else if( unit.equals("s") ) {
+			timeUnit = TimeUnit.SECONDS;
+		} else if( unit.equals("m") || unit.equals("min") ) {
+			timeUnit = TimeUnit.MINUTES;
+		} else if( unit.equals("h") ) {
+			timeUnit = TimeUnit.HOURS;
+		} else if( unit.equals("d") ) {
+			timeUnit = TimeUnit.DAYS;
+		} else {
+			return -1L;
+		}
+		long nanos = timeUnit.toNanos(amount);
+		return ( (nanos == Long.MAX_VALUE)? -1L : nanos );
+	}
+
+	/*
+	 * Multiples of 1024. A plain number is in bytes. Returns -1 for an
+	 * unknown unit or an overflow.
+	 */
+	private static long bytes(long amount, String unit) {
+		int shift;
+		if( (unit.length() == 0) || unit.equals("b") ) {
+			shift = 0;
+		} else if( unit.equals("k") || unit.equals("kb") || unit.equals("kib") ) {
+			shift = 10;
+		} else if( unit.equals("m") || unit.equals("mb") || unit.equals("mib") ) {
+			shift = 20;
+		} else if( unit.equals("g") || unit.equals("gb") || unit.equals("gib") ) {
+			shift = 30;
+		} else if( unit.equals("t") || unit.equals("tb") || unit.equals("tib") ) {
+			shift = 40;
+		} else {
+			return -1L;
+		}
+		return ( (amount > (Long.MAX_VALUE >> shift))? -1L : amount << shift );
+	}
+
+	static List<String> listOf(String raw) {
+		if( (raw == null) || (raw.trim().length() == 0) ) {
+			return Collections.emptyList();
+		}
+		if( !raw.contains(LIST_SEPARATOR) ) {
+			return Collections.singletonList(raw.trim());
+		}
+
+		String[] items = raw.split(LIST_SEPARATOR);
+		List<String> values = new ArrayList<String>(items.length);
+		for (String anItem : items) {
+			String item = anItem.trim();
+			if(item.length() > 0) {
+				values.add(item);
+			}
+		}
+		return Collections.unmodifiableList(values);
+	}
+}
@@ -21,38 +21,46 @@
 package com.google.code.jconfig.reader;
 
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.Stack;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.*;
 
 import org.apache.log4j.Logger;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import com.google.code.jconfig.exception.ConfigurationParsingException;
-import com.google.code.jconfig.exception.PluginInstantiationException;
-import com.google.code.jconfig.factory.ConfigurationPluginFactory;
-import com.google.code.jconfig.factory.ConfigurationReaderFactory;
 import com.google.code.jconfig.model.ConfigurationInfo;
-import com.google.code.jconfig.reader.hierarchical.HierarchicalReader;
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReaderBuilder;
 import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
-import com.google.code.jconfig.reader.plugins.IConfigurationPlugin;
+import com.google.code.jconfig.reader.plugins.PluginExecutionService;
+import com.google.code.jconfig.statistics.IReloadEvent;
+import com.google.code.jconfig.statistics.ReloadEvents;
+import com.google.code.jconfig.statistics.StatisticsService;
 
 /**
  * <p>
  *   Default implementation of {@link IConfigurationReader} using a SAX parser.
  * <p>
  *
+ * <p>
+ *   A reader can be reused for any number of files, but by one thread at a
+ *   time: only the parser and the node builder are kept between reads.
+ * </p>
+ *
  * @author: Gabriele Fedeli (gabriele.fedeli@gmail.com)
  */
 public class ConfigurationReader implements IConfigurationReader {
 
-	private StringBuilder currentConfigPath;
 	private SAXParser parser;
-	private ConfigurationReaderHandler readerHandler;
-	private ConfigurationInfo configurationInfo;
+	private HierarchicalReaderBuilder nodeBuilder = new HierarchicalReaderBuilder();
 	
 	private static final Logger logger = Logger.getLogger(ConfigurationReader.class);
 	
@@ -73,9 +81,7 @@ public class ConfigurationReader implements IConfigurationReader {
 	public ConfigurationReader() throws ConfigurationParsingException {
 		logger.debug("Initializing configuration reader");
 		try {
-			currentConfigPath = new StringBuilder();
 			parser = SAXParserFactory.newInstance().newSAXParser();
-			readerHandler = new ConfigurationReaderHandler();
 		} catch (ParserConfigurationException e) {
 			throw new ConfigurationParsingException(e.getMessage());
 		} catch (SAXException e) {
@@ -88,20 +94,48 @@ public class ConfigurationReader implements IConfigurationReader {
 	 * @see com.google.code.jconfig.reader.IConfigurationReader#readConfiguration(java.lang.String)
 	 */
 	public ConfigurationInfo readConfiguration(String absolutePath) throws ConfigurationParsingException {
+		return readConfiguration(absolutePath, new ImportResolver(new DependencyGraph()));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.IConfigurationReader#readConfiguration(java.lang.String, com.google.code.jconfig.reader.ImportResolver)
+	 */
+	public ConfigurationInfo readConfiguration(String absolutePath, ImportResolver resolver) throws ConfigurationParsingException {
+		logger.debug("Reading configuration: " + absolutePath);
+		File configurationFile = new File(absolutePath);
+		// all the state of the parse is kept by the handler, the parser is reused as it is
+		ConfigurationReaderHandler readerHandler = new ConfigurationReaderHandler(absolutePath, resolver, nodeBuilder);
+		ConfigurationInfo configurationInfo = readerHandler.configurationInfo;
+		DependencyGraph dependencyGraph = resolver.getGraph();
 		try {
-			logger.debug("Reading configuration: " + absolutePath);
-			configurationInfo = new ConfigurationInfo();
-			File configurationFile = new File(absolutePath);
-			currentConfigPath.append(configurationFile.getParent())
-			                 .append(File.separator);
+			long startTime = System.nanoTime();
+			IReloadEvent readEvent = ReloadEvents.fileRead(absolutePath);
+			byte[] content = Files.readAllBytes(configurationFile.toPath());
+			readEvent.commit();
+			// needed for telling apart an edit made within the granularity of the modify date
+			readerHandler.fileNode.setChecksum(FileNode.checksumOf(content));
 			
-			configurationInfo.addConfigurationFilePath(absolutePath);
-			parser.parse(configurationFile, readerHandler);
+			IReloadEvent parseEvent = ReloadEvents.parse(absolutePath);
+			InputSource source = new InputSource(new ByteArrayInputStream(content));
+			source.setSystemId(configurationFile.toURI().toString());
+			parser.parse(source, readerHandler);
+			parseEvent.commit();
+			
+			long joinTime = System.nanoTime();
+			readerHandler.mergeParts();
+			long importTime = System.nanoTime() - joinTime;
+			StatisticsService.getReloadStatistics().fileParsed(absolutePath, System.nanoTime() - startTime - importTime);
+			dependencyGraph.putNode(readerHandler.fileNode);
 		} catch (Exception e) {
 			
-			ConfigurationParsingException configurationException = new ConfigurationParsingException(e.getMessage());
+			readerHandler.waitImports();
+			ConfigurationParsingException configurationException;
 			if(e instanceof ConfigurationParsingException) {
-				configurationInfo.getConfFileList().addAll( ((ConfigurationParsingException)e).getFileParsedList() ); 
+				// rethrown as it is, so an import cycle keeps its path
+				configurationException = (ConfigurationParsingException)e;
+			} else {
+				configurationException = new ConfigurationParsingException(e.getMessage());
 			}
 			
 			configurationException.getFileParsedList().addAll(configurationInfo.getConfFileList());
@@ -109,24 +143,72 @@ public class ConfigurationReader implements IConfigurationReader {
 			configurationInfo = null;
 
 			throw configurationException;
+		} finally {
+			parser.reset();
+			nodeBuilder.reset();
 		}
 		
 		return configurationInfo;
 	}
 	
+	/*
+	 * An import, or a configuration defined in the file, either already
+	 * built or being built.
+	 */
+	private static class Part {
+		
+		private String importPath;
+		private ImportTask importTask;
+		private String id;
+		private String pluginClass;
+		private long fingerprint;
+		private IHierarchicalReader fragment;
+		private Object configuration;
+		private Future<Object> build;
+		
+		private Part(String importPath, ImportTask importTask) {
+			this.importPath = importPath;
+			this.importTask = importTask;
+		}
+		
+		private Part(String id, String pluginClass, long fingerprint, IHierarchicalReader fragment, Object configuration, Future<Object> build) {
+			this.id = id;
+			this.pluginClass = pluginClass;
+			this.fingerprint = fingerprint;
+			this.fragment = fragment;
+			this.configuration = configuration;
+			this.build = build;
+		}
+	}
+	
+	
 	/**
 	 * <p>
-	 *   The internal handler for SAX parser.
+	 *   The internal handler for SAX parser. A new one is used for every
+	 *   file parsed.
 	 * </p>
 	 */
-	private class ConfigurationReaderHandler extends DefaultHandler {
+	private static class ConfigurationReaderHandler extends DefaultHandler {
 		
-		private IConfigurationPlugin<?> currentPlugin;
-		private Stack<IHierarchicalReader> configurationPluginStack;
+		private String currentConfigPath;
+		private ConfigurationInfo configurationInfo = new ConfigurationInfo();
+		private ImportResolver importResolver;
+		private DependencyGraph dependencyGraph;
+		private FileNode fileNode;
+		private List<Part> parts = new ArrayList<Part>();
+		private String currentPluginClass;
+		private HierarchicalReaderBuilder nodeBuilder;
+		private Fingerprint fingerprint = new Fingerprint();
 		
-		@Override
-		public void startDocument() throws SAXException {
-			configurationPluginStack = new Stack<IHierarchicalReader>();
+		private ConfigurationReaderHandler(String absolutePath, ImportResolver resolver, HierarchicalReaderBuilder nodeBuilder) {
+			this.nodeBuilder = nodeBuilder;
+			importResolver = resolver;
+			dependencyGraph = resolver.getGraph();
+			File configurationFile = new File(absolutePath);
+			// taken before parsing, so a change made meanwhile is detected at the next read
+			fileNode = new FileNode(absolutePath, configurationFile.lastModified(), configurationFile.length());
+			currentConfigPath = configurationFile.getParent() + File.separator;
+			configurationInfo.addConfigurationFilePath(absolutePath);
 		}
 
 		@Override
@@ -139,32 +221,28 @@ public class ConfigurationReader implements IConfigurationReader {
 			} else if(tagName.equals(ELEMENT_TAGS.IMPORT.name())) {
 				logger.debug("Found <import> tag start.");
 				String importedConfiguration = attributes.getValue(ATTRIBUTES.file.name());
-				StringBuilder absolutePath = new StringBuilder(currentConfigPath);
-				absolutePath.append(importedConfiguration);
+				String absolutePath = currentConfigPath + importedConfiguration;
 
-				configurationInfo.add(ConfigurationReaderFactory.read(absolutePath.toString()));
+				parts.add(new Part(absolutePath, importResolver.resolve(fileNode.getPath(), absolutePath)));
 				
 			} else if(tagName.equals(ELEMENT_TAGS.CONFIGURATION.name())) {
 				logger.debug("Found <configuration> tag start.");
-				String pluginClass = attributes.getValue(ATTRIBUTES.plugin.name());
-				try {
-					currentPlugin = ConfigurationPluginFactory.getPlugin(pluginClass);
-				} catch (PluginInstantiationException e) {
-					clearResources();
-					throw new ConfigurationParsingException(e.getMessage());
-				}
-				configurationPluginStack.push(createHierarchicalReader(qName, attributes));
+				currentPluginClass = attributes.getValue(ATTRIBUTES.plugin.name());
+				fingerprint.reset();
+				addToFingerprint(qName, attributes);
+				startNode(qName, attributes);
 			} else { 
 				logger.debug("Found <" + qName + "> tag start.");
-				configurationPluginStack.push(createHierarchicalReader(qName, attributes));
+				addToFingerprint(qName, attributes);
+				startNode(qName, attributes);
 			}
 		}
 		
 		@Override
-		public void characters(char[] characters, int start, int end) throws SAXException {
-			if( !configurationPluginStack.isEmpty() ) {
-				String value = new String(characters, start, end);
-				((HierarchicalReader)configurationPluginStack.peek()).setValue(value);
+		public void characters(char[] characters, int start, int length) throws SAXException {
+			if( nodeBuilder.isBuilding() ) {
+				fingerprint.add(characters, start, length);
+				nodeBuilder.appendValue(characters, start, length);
 			}
 		}
 
@@ -177,39 +255,100 @@ public class ConfigurationReader implements IConfigurationReader {
 				logger.debug("Found <configurations> tag end.");
 			} else if(tagName.equals(ELEMENT_TAGS.CONFIGURATION.name())) {
 				logger.debug("Found <configuration> tag end.");
-				IHierarchicalReader rootConfiguration = configurationPluginStack.pop();
+				IHierarchicalReader rootConfiguration = nodeBuilder.endNode();
 				String idConfiguration = rootConfiguration.getAttributeValue("id");
-				Object configuration = currentPlugin.readConfiguration(rootConfiguration);
-				configurationInfo.addConfigurationDetail(idConfiguration, configuration);
+				long configurationFingerprint = fingerprint.addMarker(Fingerprint.END_ELEMENT).getValue();
+				IHierarchicalReader fragment = dependencyGraph.isRetainingFragments()? rootConfiguration : null;
+				FileNode.Entry memoized = dependencyGraph.getMemoizedConfiguration(currentPluginClass, configurationFingerprint);
+				if(memoized != null) {
+					logger.debug("Configuration <" + idConfiguration + "> unchanged. Reusing the one already built.");
+					parts.add(new Part(idConfiguration, currentPluginClass, configurationFingerprint, fragment, memoized.getConfiguration(), null));
+				} else {
+					// built in parallel while parsing goes on, merged in document order
+					Future<Object> build = PluginExecutionService.build(currentPluginClass, idConfiguration, fileNode.getPath(), rootConfiguration);
+					parts.add(new Part(idConfiguration, currentPluginClass, configurationFingerprint, fragment, null, build));
+				}
 			} else if(tagName.equals(ELEMENT_TAGS.IMPORT.name())) {
 				// DO NOTHING
 				logger.debug("Found <import> tag end.");
 			} else {
 				logger.debug("Found <" + qName + "> tag end.");
-				IHierarchicalReader child = configurationPluginStack.pop();
-				((HierarchicalReader)configurationPluginStack.peek()).addChild(child);
+				fingerprint.addMarker(Fingerprint.END_ELEMENT);
+				nodeBuilder.endNode();
 			}
 		}
 		
-		@Override
-		public void endDocument() throws SAXException {
-			clearResources();
+		/*
+		 * Add the configurations of the file and of its imports in document
+		 * order, so a configuration defined later overrides an earlier one,
+		 * waiting for the imports to be read and the configurations to be
+		 * built.
+		 */
+		private void mergeParts() throws ConfigurationParsingException {
+			ConfigurationParsingException failure = null;
+			for (Part aPart : parts) {
+				try {
+					if(aPart.importTask != null) {
+						fileNode.addImport(aPart.importPath);
+						configurationInfo.add(aPart.importTask.getConfigurationInfo());
+						continue;
+					}
+					
+					Object configuration = aPart.configuration;
+					if(aPart.build != null) {
+						configuration = PluginExecutionService.getConfiguration(aPart.build);
+					}
+					configurationInfo.addConfigurationDetail(aPart.id, aPart.pluginClass, configuration, aPart.fingerprint);
+					fileNode.addConfiguration(aPart.id, aPart.pluginClass, configuration, aPart.fingerprint, aPart.fragment);
+				} catch (ConfigurationParsingException e) {
+					if(failure == null) {
+						failure = e;
+					} else {
+						failure.getFileParsedList().addAll(e.getFileParsedList());
+					}
+				}
+			}
+			parts.clear();
+			
+			if(failure != null) {
+				throw failure;
+			}
+		}
+		
+		/*
+		 * Wait for the imports still running after a failure, so the files
+		 * they parsed are reported too. The configurations still to be built
+		 * are dropped.
+		 */
+		private void waitImports() {
+			for (Part aPart : parts) {
+				if(aPart.build != null) {
+					aPart.build.cancel(false);
+				} else if(aPart.importTask != null) {
+					try {
+						configurationInfo.getConfFileList().addAll(aPart.importTask.getConfigurationInfo().getConfFileList());
+					} catch (ConfigurationParsingException e) {
+						configurationInfo.getConfFileList().addAll(e.getFileParsedList());
+					}
+				}
+			}
+			parts.clear();
 		}
 
-		private void clearResources() {
-			currentConfigPath.delete(0, currentConfigPath.length());
-			currentPlugin = null;
-			configurationPluginStack.clear();
+		private void addToFingerprint(String nodeName, Attributes attributes) {
+			fingerprint.addMarker(Fingerprint.START_ELEMENT).add(nodeName);
+			for(int i = 0; i < attributes.getLength(); i++) {
+				fingerprint.addMarker(Fingerprint.ATTRIBUTE)
+				           .add(attributes.getQName(i))
+				           .add(attributes.getValue(i));
+			}
 		}
 
-		private IHierarchicalReader createHierarchicalReader(String nodeName, Attributes attributes) {
-			HierarchicalReader hierarchicalReader = new HierarchicalReader();
-			hierarchicalReader.setNodeName(nodeName);
+		private void startNode(String nodeName, Attributes attributes) {
+			nodeBuilder.startNode(nodeName);
 			for(int i = 0; i < attributes.getLength(); i++) {
-				hierarchicalReader.addAttribute(attributes.getQName(i), attributes.getValue(i));
+				nodeBuilder.addAttribute(attributes.getQName(i), attributes.getValue(i));
 			}
-			
-			return hierarchicalReader;
 		}
 	}
 }
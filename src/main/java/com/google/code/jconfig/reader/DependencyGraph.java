@@ -0,0 +1,188 @@
+/*
+ * @(#)DependencyGraph.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *    Keeps a {@link FileNode} for every configuration file parsed, starting
+ *    from the root file and following its imports.
+ * </p>
+ *
+ * <p>
+ *    Reading the configuration against a graph lets unchanged files be
+ *    reused as they are: only the changed files are parsed again and their
+ *    plugins invoked, the unchanged ones just contribute their previous
+ *    configurations in document order.
+ * </p>
+ *
+ * <p>
+ *    The graph also memoizes every configuration built, keyed by plugin
+ *    class and fragment fingerprint. A configuration fragment left untouched
+ *    in a changed file, or moved to another file, reuses the object
+ *    previously built instead of invoking the plugin again.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class DependencyGraph {
+
+	private ConcurrentHashMap<String, FileNode> nodes = new ConcurrentHashMap<String, FileNode>();
+	private ConcurrentHashMap<MemoKey, FileNode.Entry> memo = new ConcurrentHashMap<MemoKey, FileNode.Entry>();
+	private volatile boolean retainingFragments = false;
+
+	/**
+	 * <p>
+	 *    Set whether the nodes keep the parsed configuration fragments, as
+	 *    needed for writing a snapshot. Off by default.
+	 * </p>
+	 *
+	 * @param value <em>true</em> for retaining the fragments
+	 */
+	public void setRetainingFragments(boolean value) {
+		retainingFragments = value;
+	}
+
+	/**
+	 * @return <em>true</em> if the nodes keep the parsed configuration
+	 *         fragments
+	 */
+	public boolean isRetainingFragments() {
+		return retainingFragments;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the node of the file at <em>path</em>, or <em>null</em> if
+	 *    it hasn't been parsed. The file may have changed since then.
+	 * </p>
+	 *
+	 * @param path the absolute path of the configuration file
+	 * @return the node or <em>null</em>
+	 */
+	public FileNode getNode(String path) {
+		return nodes.get(path);
+	}
+
+	/**
+	 * <p>
+	 *    Returns the node of the file at <em>path</em> if it has already
+	 *    been parsed and the file has not been changed since then,
+	 *    <em>null</em> otherwise.
+	 * </p>
+	 *
+	 * @param path the absolute path of the configuration file
+	 * @return the node or <em>null</em> if the file must be parsed
+	 */
+	public FileNode getUpToDateNode(String path) {
+		FileNode node = nodes.get(path);
+		return ( (node != null && node.isUpToDate())? node : null );
+	}
+
+	/**
+	 * <p>
+	 *    Add or replace the node of a file just parsed.
+	 * </p>
+	 *
+	 * @param node the node of the file
+	 */
+	public void putNode(FileNode node) {
+		nodes.put(node.getPath(), node);
+		memoize(node);
+	}
+	
+	/**
+	 * <p>
+	 *    Returns the entry of a configuration already built by a plugin of
+	 *    class <em>pluginClass</em> from a fragment with the same
+	 *    <em>fingerprint</em>, or <em>null</em> if there's none.
+	 * </p>
+	 *
+	 * @param pluginClass the full name of the plugin class
+	 * @param fingerprint the fingerprint of the configuration fragment
+	 * @return the entry holding the configuration or <em>null</em>
+	 */
+	public FileNode.Entry getMemoizedConfiguration(String pluginClass, long fingerprint) {
+		return memo.get(new MemoKey(pluginClass, fingerprint));
+	}
+
+	/**
+	 * <p>
+	 *    Release the nodes of the files no longer part of the configuration.
+	 * </p>
+	 *
+	 * @param paths the absolute paths of the files still in use
+	 */
+	public void retainAll(Collection<String> paths) {
+		nodes.keySet().retainAll(new HashSet<String>(paths));
+		memo.clear();
+		for (FileNode aNode : nodes.values()) {
+			memoize(aNode);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Returns the number of files in the graph.
+	 * </p>
+	 *
+	 * @return the number of files in the graph
+	 */
+	public int size() {
+		return nodes.size();
+	}
+	
+	private void memoize(FileNode node) {
+		for (FileNode.Entry anEntry : node.getEntries()) {
+			if( !anEntry.isImport() ) {
+				memo.put(new MemoKey(anEntry.getPluginClass(), anEntry.getFingerprint()), anEntry);
+			}
+		}
+	}
+	
+	private static class MemoKey {
+		
+		private String pluginClass;
+		private long fingerprint;
+		
+		private MemoKey(String pluginClass, long fingerprint) {
+			this.pluginClass = pluginClass;
+			this.fingerprint = fingerprint;
+		}
+		
+		@Override
+		public int hashCode() {
+			return ( 31 * pluginClass.hashCode() + (int)(fingerprint ^ (fingerprint >>> 32)) );
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if( !(obj instanceof MemoKey) ) {
+				return false;
+			}
+			MemoKey other = (MemoKey)obj;
+			return ( fingerprint == other.fingerprint && pluginClass.equals(other.pluginClass) );
+		}
+	}
+}
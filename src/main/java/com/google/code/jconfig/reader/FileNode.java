@@ -0,0 +1,301 @@
+/*
+ * @(#)FileNode.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+
+/**
+ * <p>
+ *    What a single configuration file contributes to the whole
+ *    configuration: the files it imports and the configurations it defines,
+ *    in document order.
+ * </p>
+ *
+ * <p>
+ *    A node is bound to the state of the file when it was parsed, so it can
+ *    be reused as long as the file is left untouched.
+ * </p>
+ *
+ * <p>
+ *    A file is normally recognized as untouched by its modify date and
+ *    length. A file modified within {@link #RACY_WINDOW} ms of the last
+ *    check is <em>racy</em>: an edit keeping its length could still get the
+ *    same modify date, since file systems store it with a coarse
+ *    granularity. The content of a racy file is compared with the checksum
+ *    of the content parsed instead.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class FileNode {
+
+	public static final long RACY_WINDOW = 2000; // the coarsest modify date granularity, FAT's
+
+	private String path;
+	private long lastModified;
+	private long length;
+	private long checksum;
+	// time of the last check of the file, taken before reading it
+	private volatile long checkTime;
+	private List<Entry> entries;
+
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 *
+	 * @param path the absolute path of the configuration file
+	 * @param lastModified the last modify date in ms of the file parsed
+	 * @param length the length in bytes of the file parsed
+	 */
+	public FileNode(String path, long lastModified, long length) {
+		this.path = path;
+		this.lastModified = lastModified;
+		this.length = length;
+		checkTime = System.currentTimeMillis();
+		entries = new ArrayList<Entry>();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the absolute path of the configuration file.
+	 * </p>
+	 *
+	 * @return the absolute path of the configuration file
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * <p>
+	 *    Returns <em>true</em> if the file has not been changed since it was
+	 *    parsed, <em>false</em> otherwise.
+	 * </p>
+	 *
+	 * @return <em>true</em> if the file has not been changed since it was
+	 *         parsed, <em>false</em> otherwise
+	 */
+	public boolean isUpToDate() {
+		File file = new File(path);
+		if( (file.lastModified() != lastModified) || (file.length() != length) ) {
+			return false;
+		}
+		if(lastModified + RACY_WINDOW < checkTime) {
+			return true;
+		}
+
+		long time = System.currentTimeMillis();
+		if(checksumOf(file) != checksum) {
+			return false;
+		}
+		checkTime = time;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the CRC-32 checksum of <em>content</em>.
+	 * </p>
+	 *
+	 * @param content the content of a file
+	 * @return the checksum of the content
+	 */
+	public static long checksumOf(byte[] content) {
+		CRC32 checksum = new CRC32();
+		checksum.update(content, 0, content.length);
+		return checksum.getValue();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the CRC-32 checksum of the content of <em>file</em>, or -1 if
+	 *    it can't be read.
+	 * </p>
+	 *
+	 * @param file the file
+	 * @return the checksum of the file content
+	 */
+	public static long checksumOf(File file) {
+		try {
+			return checksumOf(Files.readAllBytes(file.toPath()));
+		} catch (IOException e) {
+			return -1L;
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Returns the CRC-32 checksum of the file content parsed.
+	 * </p>
+	 *
+	 * @return the checksum of the file content
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * <p>
+	 *    Set the CRC-32 checksum of the file content parsed.
+	 * </p>
+	 *
+	 * @param checksum the checksum of the file content
+	 */
+	public void setChecksum(long checksum) {
+		this.checksum = checksum;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the imports and the configurations of the file, in document
+	 *    order.
+	 * </p>
+	 *
+	 * @return the entries of the file
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * <p>
+	 *    Record an import of another configuration file.
+	 * </p>
+	 *
+	 * @param importedPath the absolute path of the imported file
+	 */
+	public void addImport(String importedPath) {
+		entries.add(new Entry(importedPath, null, null, null, 0L, null));
+	}
+
+	/**
+	 * <p>
+	 *    Record a configuration defined in the file.
+	 * </p>
+	 *
+	 * @param id the configuration identifier
+	 * @param pluginClass the full name of the plugin class
+	 * @param configuration the configuration built by the plugin
+	 * @param fingerprint the fingerprint of the configuration fragment
+	 */
+	public void addConfiguration(String id, String pluginClass, Object configuration, long fingerprint) {
+		addConfiguration(id, pluginClass, configuration, fingerprint, null);
+	}
+
+	/**
+	 * <p>
+	 *    Record a configuration defined in the file, together with the parsed
+	 *    fragment it was built from.
+	 * </p>
+	 *
+	 * @param id the configuration identifier
+	 * @param pluginClass the full name of the plugin class
+	 * @param configuration the configuration built by the plugin
+	 * @param fingerprint the fingerprint of the configuration fragment
+	 * @param node the parsed configuration fragment, may be <em>null</em>
+	 */
+	public void addConfiguration(String id, String pluginClass, Object configuration, long fingerprint, IHierarchicalReader node) {
+		entries.add(new Entry(null, id, pluginClass, configuration, fingerprint, node));
+	}
+
+	/**
+	 * <p>
+	 *    A single import or configuration of a file.
+	 * </p>
+	 */
+	public static class Entry {
+
+		private String importedPath;
+		private String id;
+		private String pluginClass;
+		private Object configuration;
+		private long fingerprint;
+		private IHierarchicalReader node;
+
+		private Entry(String importedPath, String id, String pluginClass, Object configuration, long fingerprint, IHierarchicalReader node) {
+			this.importedPath = importedPath;
+			this.id = id;
+			this.pluginClass = pluginClass;
+			this.configuration = configuration;
+			this.fingerprint = fingerprint;
+			this.node = node;
+		}
+
+		/**
+		 * @return <em>true</em> if this entry is an import
+		 */
+		public boolean isImport() {
+			return (importedPath != null);
+		}
+
+		/**
+		 * @return the absolute path of the imported file, if this entry is an
+		 *         import
+		 */
+		public String getImportedPath() {
+			return importedPath;
+		}
+
+		/**
+		 * @return the configuration identifier
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return the full name of the plugin class
+		 */
+		public String getPluginClass() {
+			return pluginClass;
+		}
+
+		/**
+		 * @return the configuration built by the plugin
+		 */
+		public Object getConfiguration() {
+			return configuration;
+		}
+
+		/**
+		 * @return the fingerprint of the configuration fragment
+		 */
+		public long getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * @return the parsed configuration fragment, <em>null</em> if it
+		 *         wasn't retained
+		 */
+		public IHierarchicalReader getNode() {
+			return node;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * @(#)Fingerprint.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+/**
+ * <p>
+ *    A 64 bit FNV-1a hash of the content of a configuration fragment, fed
+ *    with the SAX events while parsing.
+ * </p>
+ *
+ * <p>
+ *    Two fragments with the same element names, attributes and text in the
+ *    same order have the same fingerprint, so a configuration whose
+ *    fingerprint didn't change can be considered unchanged without looking
+ *    at the objects built from it. Names and attribute values are preceded
+ *    by their length and events by a marker starting with the NUL character,
+ *    which can't appear in XML text, so different structures never hash the
+ *    same characters in the same sequence.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public final class Fingerprint {
+
+	public static final int START_ELEMENT = 1;
+	public static final int ATTRIBUTE = 2;
+	public static final int END_ELEMENT = 3;
+
+	private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private long hash = OFFSET_BASIS;
+
+	/**
+	 * <p>
+	 *    Start a new fingerprint.
+	 * </p>
+	 */
+	public void reset() {
+		hash = OFFSET_BASIS;
+	}
+
+	/**
+	 * <p>
+	 *    Add an event marker.
+	 * </p>
+	 *
+	 * @param marker one of the event constants of this class
+	 * @return this fingerprint
+	 */
+	public Fingerprint addMarker(int marker) {
+		addChar((char)0);
+		addChar((char)marker);
+		return this;
+	}
+
+	/**
+	 * <p>
+	 *    Add a string, <em>null</em> allowed.
+	 * </p>
+	 *
+	 * @param value the string to be added
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(String value) {
+		if(value == null) {
+			return addInt(-1);
+		}
+
+		int length = value.length();
+		addInt(length);
+		for(int i = 0; i < length; i++) {
+			addChar(value.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * <p>
+	 *    Add a range of text characters. Nothing else is added, so a text
+	 *    split across several calls has the same fingerprint as the whole one.
+	 * </p>
+	 *
+	 * @param characters the characters
+	 * @param start the start position in the array
+	 * @param length the number of characters to be added
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(char[] characters, int start, int length) {
+		for(int i = start; i < start + length; i++) {
+			addChar(characters[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the fingerprint of the content added since the last reset.
+	 * </p>
+	 *
+	 * @return the fingerprint value
+	 */
+	public long getValue() {
+		return hash;
+	}
+
+	private Fingerprint addInt(int value) {
+		addChar((char)(value >>> 16));
+		addChar((char)value);
+		return this;
+	}
+
+	private void addChar(char c) {
+		hash = (hash ^ (c >>> 8)) * PRIME;
+		hash = (hash ^ (c & 0xff)) * PRIME;
+	}
+}
@@ -44,4 +44,21 @@ public interface IConfigurationReader {
 	 * @throws ConfigurationParsingException
 	 */
 	public ConfigurationInfo readConfiguration(String absolutePath) throws ConfigurationParsingException;
+	
+	/**
+	 * <p>
+	 *   Parse a configuration file and returns an instance of
+	 *   {@link ConfigurationInfo}, containing all the configuration infos parsed.
+	 *   The files imported are resolved by <em>resolver</em>, so each one is
+	 *   read once and the ones unchanged since the previous read aren't parsed
+	 *   again. The node of the parsed file is recorded in the dependency graph
+	 *   of the resolver.
+	 * </p>
+	 * 
+	 * @param absolutePath the configuration file
+	 * @param resolver the resolver of the imports of the current read
+	 * @return an instance of {@link ConfigurationInfo}
+	 * @throws ConfigurationParsingException
+	 */
+	public ConfigurationInfo readConfiguration(String absolutePath, ImportResolver resolver) throws ConfigurationParsingException;
 }
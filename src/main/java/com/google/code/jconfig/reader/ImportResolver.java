@@ -0,0 +1,167 @@
+/*
+ * @(#)ImportResolver.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+import com.google.code.jconfig.exception.ImportCycleException;
+
+/**
+ * <p>
+ *    Resolves the imports met during a single read of the configuration.
+ * </p>
+ *
+ * <p>
+ *    Every file is read once per read, keyed by its canonical path: a file
+ *    imported by several others, or several times, contributes the same
+ *    {@link ImportTask} wherever it is imported. An import making a file
+ *    depend on itself is reported as an {@link ImportCycleException}
+ *    instead of being followed.
+ * </p>
+ *
+ * <p>
+ *    A new resolver must be used for every read, the {@link DependencyGraph}
+ *    is shared among reads.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ImportResolver {
+
+	private static final Logger logger = Logger.getLogger(ImportResolver.class);
+
+	private DependencyGraph graph;
+	private ConcurrentHashMap<String, ImportTask> imports = new ConcurrentHashMap<String, ImportTask>();
+	private ConcurrentHashMap<String, String> canonicalPaths = new ConcurrentHashMap<String, String>();
+	// guarded by itself: the imports found so far, by canonical path
+	private Map<String, Set<String>> importEdges = new HashMap<String, Set<String>>();
+
+	/**
+	 * <p>
+	 *    Constructor
+	 * </p>
+	 *
+	 * @param graph the dependency graph of the previous reads
+	 */
+	public ImportResolver(DependencyGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * @return the dependency graph of the previous reads
+	 */
+	public DependencyGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the task reading <em>importedPath</em>, imported by the file
+	 *    at <em>path</em>. The file is read by the first import resolved,
+	 *    the later ones share the same task.
+	 * </p>
+	 *
+	 * @param path the absolute path of the importing file
+	 * @param importedPath the absolute path of the imported file
+	 * @return the task reading the imported file
+	 * @throws ImportCycleException if the imported file imports, directly
+	 *                              or not, the importing one
+	 */
+	public ImportTask resolve(String path, String importedPath) throws ImportCycleException {
+		String from = canonicalPathOf(path);
+		String to = canonicalPathOf(importedPath);
+		// checked and recorded atomically, otherwise two files importing each
+		// other from parallel reads could both pass and wait for each other
+		synchronized (importEdges) {
+			List<String> cycle = findPath(to, from, new HashSet<String>());
+			if(cycle != null) {
+				cycle.add(0, from);
+				throw new ImportCycleException(cycle);
+			}
+			Set<String> edges = importEdges.get(from);
+			if(edges == null) {
+				edges = new LinkedHashSet<String>();
+				importEdges.put(from, edges);
+			}
+			edges.add(to);
+		}
+
+		ImportTask task = imports.get(to);
+		if(task == null) {
+			ImportTask newTask = new ImportTask(importedPath, this);
+			task = imports.putIfAbsent(to, newTask);
+			if(task == null) {
+				return newTask.start();
+			}
+		}
+		logger.debug("Configuration <" + importedPath + "> already imported. Reusing it.");
+		return task;
+	}
+
+	/*
+	 * Returns the imports leading from "from" to "to", both included, or
+	 * null if there's none.
+	 */
+	private List<String> findPath(String from, String to, Set<String> visited) {
+		if(from.equals(to)) {
+			List<String> path = new ArrayList<String>();
+			path.add(to);
+			return path;
+		}
+
+		Set<String> edges = importEdges.get(from);
+		if( (edges != null) && visited.add(from) ) {
+			for (String anImport : edges) {
+				List<String> path = findPath(anImport, to, visited);
+				if(path != null) {
+					path.add(0, from);
+					return path;
+				}
+			}
+		}
+		return null;
+	}
+
+	private String canonicalPathOf(String path) {
+		String canonicalPath = canonicalPaths.get(path);
+		if(canonicalPath == null) {
+			File file = new File(path);
+			try {
+				canonicalPath = file.getCanonicalPath();
+			} catch (IOException e) {
+				canonicalPath = file.getAbsoluteFile().toURI().normalize().getPath();
+			}
+			canonicalPaths.put(path, canonicalPath);
+		}
+		return canonicalPath;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * @(#)ImportTask.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.exception.ImportCycleException;
+import com.google.code.jconfig.factory.ConfigurationReaderFactory;
+import com.google.code.jconfig.model.ConfigurationInfo;
+
+/**
+ * <p>
+ *    Reads an imported configuration file on a fork-join pool, so the
+ *    imports of a file are parsed in parallel while the file itself is
+ *    still being parsed.
+ * </p>
+ *
+ * <p>
+ *    Tasks are created by an {@link ImportResolver}, which shares the same
+ *    task among all the imports of a file.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ImportTask extends RecursiveTask<ConfigurationInfo> {
+
+	private static final long serialVersionUID = 1L;
+	private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+	private String path;
+	private transient ImportResolver resolver;
+	private ConfigurationParsingException exception;
+
+	ImportTask(String path, ImportResolver resolver) {
+		this.path = path;
+		this.resolver = resolver;
+	}
+
+	/*
+	 * Start reading the file.
+	 */
+	ImportTask start() {
+		if(ForkJoinTask.getPool() == pool) {
+			fork();
+		} else {
+			pool.execute(this);
+		}
+		return this;
+	}
+
+	/**
+	 * <p>
+	 *    Wait for the file to be read and returns its configurations. The
+	 *    configurations returned are shared by all the imports of the file
+	 *    and must not be modified.
+	 * </p>
+	 *
+	 * @return the configurations of the imported file and of its imports
+	 * @throws ConfigurationParsingException if the file can't be read
+	 */
+	public ConfigurationInfo getConfigurationInfo() throws ConfigurationParsingException {
+		ConfigurationInfo configurationInfo = join();
+		// a copy for every import, as each importing file adds its own paths
+		if(exception instanceof ImportCycleException) {
+			throw new ImportCycleException(((ImportCycleException)exception).getCyclePath(), new ArrayList<String>(exception.getFileParsedList()));
+		} else if(exception != null) {
+			throw new ConfigurationParsingException(exception.getMessage(), new ArrayList<String>(exception.getFileParsedList()));
+		}
+		return configurationInfo;
+	}
+
+	@Override
+	protected ConfigurationInfo compute() {
+		try {
+			return ConfigurationReaderFactory.read(path, resolver);
+		} catch (ConfigurationParsingException e) {
+			exception = e;
+		} catch (RuntimeException e) {
+			exception = new ConfigurationParsingException(e.getMessage());
+			exception.getFileParsedList().add(path);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * @(#)SnapshotFile.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReaderBuilder;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+
+/**
+ * <p>
+ *    Writes and reads a compact binary snapshot of the parsed configuration
+ *    files: for every file its path, checksum, imports and configuration
+ *    fragments, in document order.
+ * </p>
+ *
+ * <p>
+ *    All the strings are stored once in a table and referenced by index. The
+ *    snapshot is read with a single sequential pass and written to a
+ *    temporary file first, so a reader never sees it half written.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class SnapshotFile {
+
+	private static final int MAGIC = 0x4A434653; // "JCFS"
+	private static final int VERSION = 1;
+	private static final int NULL = -1;
+	private static final int IMPORT = 0;
+	private static final int CONFIGURATION = 1;
+
+	/**
+	 * <p>
+	 *    Write the snapshot of the files parsed from <em>rootPath</em>.
+	 * </p>
+	 *
+	 * @param file the snapshot file
+	 * @param rootPath the absolute path of the root configuration file
+	 * @param nodes the nodes of the configuration files, with their
+	 *              configuration fragments
+	 * @throws IOException
+	 */
+	public static void write(File file, String rootPath, List<FileNode> nodes) throws IOException {
+		StringTable strings = new StringTable();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream bodyOutput = new DataOutputStream(body);
+		bodyOutput.writeInt(strings.indexOf(rootPath));
+		bodyOutput.writeInt(nodes.size());
+		for (FileNode aNode : nodes) {
+			bodyOutput.writeInt(strings.indexOf(aNode.getPath()));
+			bodyOutput.writeLong(aNode.getChecksum());
+			bodyOutput.writeInt(aNode.getEntries().size());
+			for (FileNode.Entry anEntry : aNode.getEntries()) {
+				if( anEntry.isImport() ) {
+					bodyOutput.writeByte(IMPORT);
+					bodyOutput.writeInt(strings.indexOf(anEntry.getImportedPath()));
+				} else {
+					bodyOutput.writeByte(CONFIGURATION);
+					bodyOutput.writeInt(strings.indexOf(anEntry.getId()));
+					bodyOutput.writeInt(strings.indexOf(anEntry.getPluginClass()));
+					bodyOutput.writeLong(anEntry.getFingerprint());
+					writeNode(bodyOutput, strings, anEntry.getNode());
+				}
+			}
+		}
+		bodyOutput.flush();
+
+		File directory = file.getAbsoluteFile().getParentFile();
+		directory.mkdirs();
+		File temporaryFile = File.createTempFile(file.getName(), ".tmp", directory);
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(strings.size());
+				for (String aString : strings) {
+					byte[] bytes = aString.getBytes(StandardCharsets.UTF_8);
+					output.writeInt(bytes.length);
+					output.write(bytes);
+				}
+				body.writeTo(output);
+			} finally {
+				output.close();
+			}
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temporaryFile.delete();
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Read the snapshot of the files parsed from <em>rootPath</em>. The
+	 *    nodes returned hold the checksums and the configuration fragments,
+	 *    but no built configuration and no file state, so they're never up
+	 *    to date.
+	 * </p>
+	 *
+	 * @param file the snapshot file
+	 * @param rootPath the absolute path of the root configuration file
+	 * @return the nodes of the configuration files, or <em>null</em> if the
+	 *         snapshot was taken from another root file
+	 * @throws IOException if the snapshot can't be read or is corrupted
+	 */
+	public static List<FileNode> read(File file, String rootPath) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			return read(input, file.length(), rootPath);
+		} catch (EOFException e) {
+			throw new IOException("Truncated snapshot: " + file);
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("Corrupted snapshot: " + file);
+		} catch (NegativeArraySizeException e) {
+			throw new IOException("Corrupted snapshot: " + file);
+		} finally {
+			input.close();
+		}
+	}
+
+	private static List<FileNode> read(DataInputStream input, long length, String rootPath) throws IOException {
+		if( (input.readInt() != MAGIC) || (input.readInt() != VERSION) ) {
+			throw new IOException("Not a snapshot of this version.");
+		}
+
+		String[] strings = new String[input.readInt()];
+		for(int i = 0; i < strings.length; i++) {
+			int byteCount = input.readInt();
+			if(byteCount > length) {
+				throw new IndexOutOfBoundsException();
+			}
+			byte[] bytes = new byte[byteCount];
+			input.readFully(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		if( !rootPath.equals(strings[input.readInt()]) ) {
+			return null;
+		}
+
+		HierarchicalReaderBuilder nodeBuilder = new HierarchicalReaderBuilder();
+		int nodeCount = input.readInt();
+		List<FileNode> nodes = new ArrayList<FileNode>(nodeCount);
+		for(int i = 0; i < nodeCount; i++) {
+			FileNode node = new FileNode(strings[input.readInt()], 0L, -1L);
+			node.setChecksum(input.readLong());
+			int entryCount = input.readInt();
+			for(int j = 0; j < entryCount; j++) {
+				if(input.readByte() == IMPORT) {
+					node.addImport(strings[input.readInt()]);
+				} else {
+					String id = strings[input.readInt()];
+					String pluginClass = strings[input.readInt()];
+					long fingerprint = input.readLong();
+					node.addConfiguration(id, pluginClass, null, fingerprint, readNode(input, strings, nodeBuilder));
+				}
+			}
+			nodes.add(node);
+		}
+
+		return nodes;
+	}
+
+	private static void writeNode(DataOutputStream output, StringTable strings, IHierarchicalReader node) throws IOException {
+		output.writeInt(strings.indexOf(node.getNodeName()));
+		output.writeInt( (node.getValue() != null)? strings.indexOf(node.getValue()) : NULL );
+		output.writeInt(node.getAttributeCount());
+		Iterator<String> attributeItr = node.getAttributeNames();
+		while(attributeItr.hasNext()) {
+			String attrName = attributeItr.next();
+			output.writeInt(strings.indexOf(attrName));
+			output.writeInt(strings.indexOf(node.getAttributeValue(attrName)));
+		}
+
+		List<IHierarchicalReader> children = node.getChildren();
+		output.writeInt(children.size());
+		for (IHierarchicalReader child : children) {
+			writeNode(output, strings, child);
+		}
+	}
+
+	private static IHierarchicalReader readNode(DataInputStream input, String[] strings, HierarchicalReaderBuilder nodeBuilder) throws IOException {
+		nodeBuilder.startNode(strings[input.readInt()]);
+		int valueIndex = input.readInt();
+		if(valueIndex != NULL) {
+			nodeBuilder.setValue(strings[valueIndex]);
+		}
+
+		int attributeCount = input.readInt();
+		for(int i = 0; i < attributeCount; i++) {
+			String attrName = strings[input.readInt()];
+			nodeBuilder.addAttribute(attrName, strings[input.readInt()]);
+		}
+
+		int childCount = input.readInt();
+		for(int i = 0; i < childCount; i++) {
+			readNode(input, strings, nodeBuilder);
+		}
+
+		return nodeBuilder.endNode();
+	}
+
+	/*
+	 * The distinct strings of a snapshot, in order of first use.
+	 */
+	private static class StringTable implements Iterable<String> {
+
+		private Map<String, Integer> indexes = new LinkedHashMap<String, Integer>();
+
+		private int indexOf(String value) {
+			Integer index = indexes.get(value);
+			if(index == null) {
+				index = indexes.size();
+				indexes.put(value, index);
+			}
+			return index;
+		}
+
+		private int size() {
+			return indexes.size();
+		}
+
+		public Iterator<String> iterator() {
+			return indexes.keySet().iterator();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * @(#)ChildIndex.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *    The children of a {@link CompactHierarchicalReader} grouped by name,
+ *    and the children with the same name grouped by the value of an
+ *    attribute, for the {@link NodeQuery} steps run on the node.
+ * </p>
+ *
+ * <p>
+ *    The groups by attribute are built the first time an attribute is
+ *    queried. The index is immutable otherwise and can be read by any
+ *    number of threads.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+final class ChildIndex {
+
+	private final Map<String, NameGroup> byName;
+
+	ChildIndex(IHierarchicalReader[] children) {
+		Map<String, List<IHierarchicalReader>> groups = new HashMap<String, List<IHierarchicalReader>>();
+		for (IHierarchicalReader aChild : children) {
+			List<IHierarchicalReader> group = groups.get(aChild.getNodeName());
+			if(group == null) {
+				group = new ArrayList<IHierarchicalReader>();
+				groups.put(aChild.getNodeName(), group);
+			}
+			group.add(aChild);
+		}
+
+		byName = new HashMap<String, NameGroup>(groups.size() * 2);
+		for (Entry<String, List<IHierarchicalReader>> anEntry : groups.entrySet()) {
+			byName.put(anEntry.getKey(), new NameGroup(toArray(anEntry.getValue())));
+		}
+	}
+
+	/*
+	 * Returns the children named name, in document order.
+	 */
+	IHierarchicalReader[] children(String name) {
+		NameGroup group = byName.get(name);
+		return ( (group != null)? group.children : CompactHierarchicalReader.NO_CHILDREN );
+	}
+
+	/*
+	 * Returns the children named name with attribute equal to value, in
+	 * document order.
+	 */
+	IHierarchicalReader[] children(String name, String attribute, String value) {
+		NameGroup group = byName.get(name);
+		if(group == null) {
+			return CompactHierarchicalReader.NO_CHILDREN;
+		}
+		IHierarchicalReader[] children = group.byValue(attribute).get(value);
+		return ( (children != null)? children : CompactHierarchicalReader.NO_CHILDREN );
+	}
+
+	private static IHierarchicalReader[] toArray(List<IHierarchicalReader> nodes) {
+		return nodes.toArray(new IHierarchicalReader[nodes.size()]);
+	}
+
+	private static class NameGroup {
+
+		private final IHierarchicalReader[] children;
+		private final ConcurrentHashMap<String, Map<String, IHierarchicalReader[]>> byAttribute = new ConcurrentHashMap<String, Map<String, IHierarchicalReader[]>>();
+
+		private NameGroup(IHierarchicalReader[] children) {
+			this.children = children;
+		}
+
+		private Map<String, IHierarchicalReader[]> byValue(String attribute) {
+			Map<String, IHierarchicalReader[]> byValue = byAttribute.get(attribute);
+			if(byValue == null) {
+				Map<String, IHierarchicalReader[]> newByValue = group(attribute);
+				byValue = byAttribute.putIfAbsent(attribute, newByValue);
+				if(byValue == null) {
+					byValue = newByValue;
+				}
+			}
+			return byValue;
+		}
+
+		private Map<String, IHierarchicalReader[]> group(String attribute) {
+			Map<String, List<IHierarchicalReader>> groups = new HashMap<String, List<IHierarchicalReader>>();
+			for (IHierarchicalReader aChild : children) {
+				String value = aChild.getAttributeValue(attribute);
+				if(value == null) {
+					continue;
+				}
+				List<IHierarchicalReader> group = groups.get(value);
+				if(group == null) {
+					group = new ArrayList<IHierarchicalReader>();
+					groups.put(value, group);
+				}
+				group.add(aChild);
+			}
+
+			Map<String, IHierarchicalReader[]> byValue = new HashMap<String, IHierarchicalReader[]>(groups.size() * 2);
+			for (Entry<String, List<IHierarchicalReader>> anEntry : groups.entrySet()) {
+				byValue.put(anEntry.getKey(), toArray(anEntry.getValue()));
+			}
+			return byValue;
+		}
+	}
+}
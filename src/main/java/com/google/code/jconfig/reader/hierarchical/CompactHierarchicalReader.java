@@ -0,0 +1,177 @@
+/*
+ * @(#)CompactHierarchicalReader.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *    An immutable configuration node, built by
+ *    {@link HierarchicalReaderBuilder}.
+ * </p>
+ *
+ * <p>
+ *    The attributes are kept inline in one array, names and values
+ *    alternated in document order, and the children in an array of their
+ *    exact number: a node costs three small objects at most, whatever the
+ *    number of its attributes.
+ * </p>
+ *
+ * <p>
+ *    A node with many children builds a {@link ChildIndex} the first time
+ *    a {@link NodeQuery} runs on it.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+final class CompactHierarchicalReader implements IHierarchicalReader {
+
+	static final String[] NO_ATTRIBUTES = new String[0];
+	static final IHierarchicalReader[] NO_CHILDREN = new IHierarchicalReader[0];
+	// below this number of children a scan is as fast as the index
+	static final int INDEX_THRESHOLD = 8;
+
+	private final String nodeName;
+	private final String value;
+	private final String[] attributes;
+	private final IHierarchicalReader[] children;
+	private volatile ChildIndex childIndex;
+
+	CompactHierarchicalReader(String nodeName, String value, String[] attributes, IHierarchicalReader[] children) {
+		this.nodeName = nodeName;
+		this.value = value;
+		this.attributes = attributes;
+		this.children = children;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeValue(java.lang.String)
+	 */
+	public String getAttributeValue(String name) {
+		for(int i = 0; i < attributes.length; i += 2) {
+			if( (attributes[i] == name) || attributes[i].equals(name) ) {
+				return attributes[i + 1];
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeCount()
+	 */
+	public int getAttributeCount() {
+		return attributes.length / 2;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeNames()
+	 */
+	public Iterator<String> getAttributeNames() {
+		return new Iterator<String>() {
+
+			private int index = 0;
+
+			public boolean hasNext() {
+				return ( index < attributes.length );
+			}
+
+			public String next() {
+				if( !hasNext() ) {
+					throw new NoSuchElementException();
+				}
+				String name = attributes[index];
+				index += 2;
+				return name;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getNodeName()
+	 */
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getValue()
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#hasChildren()
+	 */
+	public boolean hasChildren() {
+		return ( children.length > 0 );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getChildren()
+	 */
+	public List<IHierarchicalReader> getChildren() {
+		if(children.length == 0) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(children));
+	}
+
+	IHierarchicalReader[] childArray() {
+		return children;
+	}
+
+	/*
+	 * Returns the index of the children, null if they are too few for one.
+	 * Two threads may both build it: the index is the same either way.
+	 */
+	ChildIndex childIndex() {
+		if(children.length < INDEX_THRESHOLD) {
+			return null;
+		}
+		ChildIndex index = childIndex;
+		if(index == null) {
+			index = new ChildIndex(children);
+			childIndex = index;
+		}
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return "<" + nodeName + " attributes=" + Arrays.toString(attributes) + " children=" + children.length + ">";
+	}
+}
@@ -21,6 +21,7 @@
 package com.google.code.jconfig.reader.hierarchical;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -28,7 +29,9 @@ import java.util.Map;
 
 /**
  * <p>
- *    The default implementation of a hierarchical configuration node.
+ *    A mutable implementation of a hierarchical configuration node, for
+ *    building nodes by hand. The parser builds compact, immutable nodes with
+ *    {@link HierarchicalReaderBuilder}.
  * </p>
  *
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
@@ -37,7 +40,7 @@ public class HierarchicalReader implements IHierarchicalReader {
 
 	private String nodeName;
 	private String value;
-	private Map<String, String> attributes = new HashMap<String, String>();
+	private Map<String, String> attributes;
 	private List<IHierarchicalReader> children;
 	
 	/*
@@ -45,7 +48,7 @@ public class HierarchicalReader implements IHierarchicalReader {
 	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeValue(java.lang.String)
 	 */
 	public String getAttributeValue(String name) {
-		return attributes.get(name);
+		return ( (attributes != null)? attributes.get(name) : null );
 	}
 
 	/*
@@ -53,7 +56,7 @@ public class HierarchicalReader implements IHierarchicalReader {
 	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeCount()
 	 */
 	public int getAttributeCount() {
-		return attributes.size();
+		return ( (attributes != null)? attributes.size() : 0 );
 	}
 
 	/*
@@ -61,6 +64,9 @@ public class HierarchicalReader implements IHierarchicalReader {
 	 * @see com.google.code.jconfig.reader.hierarchical.IHierarchicalReader#getAttributeNames()
 	 */
 	public Iterator<String> getAttributeNames() {
+		if(attributes == null) {
+			return Collections.<String>emptySet().iterator();
+		}
 		return attributes.keySet().iterator();
 	}
 
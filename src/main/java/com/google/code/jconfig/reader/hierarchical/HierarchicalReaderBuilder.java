@@ -0,0 +1,233 @@
+/*
+ * @(#)HierarchicalReaderBuilder.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *    Builds trees of immutable {@link IHierarchicalReader} nodes, one
+ *    element at a time as they are met by a parser.
+ * </p>
+ *
+ * <p>
+ *    The nodes are compact: attributes are stored inline, children in an
+ *    array of their exact size and node and attribute names are interned, so
+ *    the same name is shared by all the nodes. The attributes, children and
+ *    text of the nodes still open are kept in buffers reused for every node,
+ *    so the only objects allocated are the ones retained by the tree.
+ * </p>
+ *
+ * <p>
+ *    The text of a node can be appended in any number of chunks, as a parser
+ *    reports it; the text of its children isn't part of it. It becomes the
+ *    value of the node when the node is closed. The text of a node with
+ *    children is dropped if it's only whitespace, as it only indents them;
+ *    the one of a leaf is always kept.
+ * </p>
+ *
+ * <p>
+ *    A builder can be reused for any number of trees, but by one thread at a
+ *    time.
+ * </p>
+ *
+ * <pre>
+ *    builder.startNode("configuration");
+ *    builder.addAttribute("id", "general");
+ *    builder.startNode("property");
+ *    builder.setValue("value 1");
+ *    builder.endNode();
+ *    IHierarchicalReader root = builder.endNode();
+ * </pre>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class HierarchicalReaderBuilder {
+
+	private static final int INITIAL_DEPTH = 16;
+
+	private int depth = 0;
+	private String[] nodeNames = new String[INITIAL_DEPTH];
+	private String[] values = new String[INITIAL_DEPTH];
+	private int[] attributeStarts = new int[INITIAL_DEPTH];
+	private int[] childStarts = new int[INITIAL_DEPTH];
+	private String[] attributeBuffer = new String[32];
+	private int attributeTop = 0;
+	private IHierarchicalReader[] childBuffer = new IHierarchicalReader[64];
+	private int childTop = 0;
+	private int[] textStarts = new int[INITIAL_DEPTH];
+	private char[] textBuffer = new char[256];
+	private int textTop = 0;
+
+	/**
+	 * <p>
+	 *    Open a new node, child of the node currently open if any.
+	 * </p>
+	 *
+	 * @param nodeName the node name
+	 */
+	public void startNode(String nodeName) {
+		if(depth == nodeNames.length) {
+			int newLength = depth * 2;
+			nodeNames = Arrays.copyOf(nodeNames, newLength);
+			values = Arrays.copyOf(values, newLength);
+			attributeStarts = Arrays.copyOf(attributeStarts, newLength);
+			childStarts = Arrays.copyOf(childStarts, newLength);
+			textStarts = Arrays.copyOf(textStarts, newLength);
+		}
+		nodeNames[depth] = nodeName.intern();
+		values[depth] = null;
+		attributeStarts[depth] = attributeTop;
+		childStarts[depth] = childTop;
+		textStarts[depth] = textTop;
+		depth++;
+	}
+
+	/**
+	 * <p>
+	 *    Add an attribute to the node currently open.
+	 * </p>
+	 *
+	 * @param name the attribute name
+	 * @param value the attribute value
+	 */
+	public void addAttribute(String name, String value) {
+		checkBuilding();
+		if(attributeTop + 2 > attributeBuffer.length) {
+			attributeBuffer = Arrays.copyOf(attributeBuffer, attributeBuffer.length * 2);
+		}
+		attributeBuffer[attributeTop++] = name.intern();
+		attributeBuffer[attributeTop++] = value;
+	}
+
+	/**
+	 * <p>
+	 *    Append <em>length</em> characters of <em>text</em>, starting at
+	 *    <em>start</em>, to the text of the node currently open.
+	 * </p>
+	 *
+	 * @param text the characters
+	 * @param start the index of the first character
+	 * @param length the number of characters
+	 */
+	public void appendValue(char[] text, int start, int length) {
+		checkBuilding();
+		if(textTop + length > textBuffer.length) {
+			textBuffer = Arrays.copyOf(textBuffer, Math.max(textBuffer.length * 2, textTop + length));
+		}
+		System.arraycopy(text, start, textBuffer, textTop, length);
+		textTop += length;
+	}
+
+	/**
+	 * <p>
+	 *    Set the value of the node currently open, replacing any text
+	 *    appended.
+	 * </p>
+	 *
+	 * @param value the node value
+	 */
+	public void setValue(String value) {
+		checkBuilding();
+		values[depth - 1] = value;
+	}
+
+	/**
+	 * <p>
+	 *    Close the node currently open and returns it. Unless it's the root,
+	 *    the node is added to the children of its parent.
+	 * </p>
+	 *
+	 * @return the node built
+	 */
+	public IHierarchicalReader endNode() {
+		checkBuilding();
+		depth--;
+		int attributeStart = attributeStarts[depth];
+		String[] attributes = (attributeTop == attributeStart)? CompactHierarchicalReader.NO_ATTRIBUTES
+		                                                       : Arrays.copyOfRange(attributeBuffer, attributeStart, attributeTop);
+		Arrays.fill(attributeBuffer, attributeStart, attributeTop, null);
+		attributeTop = attributeStart;
+
+		int childStart = childStarts[depth];
+		IHierarchicalReader[] children = (childTop == childStart)? CompactHierarchicalReader.NO_CHILDREN
+		                                                         : Arrays.copyOfRange(childBuffer, childStart, childTop);
+		Arrays.fill(childBuffer, childStart, childTop, null);
+		childTop = childStart;
+
+		String value = values[depth];
+		int textStart = textStarts[depth];
+		// the whitespace around children is formatting, the one of a leaf is its value
+		if( (value == null) && (textTop > textStart) && ((children.length == 0) || !isWhitespace(textStart, textTop)) ) {
+			value = new String(textBuffer, textStart, textTop - textStart);
+		}
+		textTop = textStart;
+
+		IHierarchicalReader node = new CompactHierarchicalReader(nodeNames[depth], value, attributes, children);
+		nodeNames[depth] = null;
+		values[depth] = null;
+		if(depth > 0) {
+			if(childTop == childBuffer.length) {
+				childBuffer = Arrays.copyOf(childBuffer, childBuffer.length * 2);
+			}
+			childBuffer[childTop++] = node;
+		}
+		return node;
+	}
+
+	/**
+	 * @return <em>true</em> if a node is open
+	 */
+	public boolean isBuilding() {
+		return ( depth > 0 );
+	}
+
+	/**
+	 * <p>
+	 *    Drop the nodes still open, after a parse failed.
+	 * </p>
+	 */
+	public void reset() {
+		Arrays.fill(nodeNames, 0, depth, null);
+		Arrays.fill(values, 0, depth, null);
+		Arrays.fill(attributeBuffer, 0, attributeTop, null);
+		Arrays.fill(childBuffer, 0, childTop, null);
+		depth = 0;
+		attributeTop = 0;
+		childTop = 0;
+		textTop = 0;
+	}
+
+	private boolean isWhitespace(int start, int end) {
+		for(int i = start; i < end; i++) {
+			if( !Character.isWhitespace(textBuffer[i]) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void checkBuilding() {
+		if(depth == 0) {
+			throw new IllegalStateException("No node open.");
+		}
+	}
+}
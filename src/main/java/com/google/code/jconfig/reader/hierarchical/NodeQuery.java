@@ -0,0 +1,333 @@
+/*
+ * @(#)NodeQuery.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *    A path expression compiled once and run on any number of
+ *    {@link IHierarchicalReader} trees, for finding nested nodes without
+ *    walking the children by hand:
+ * </p>
+ *
+ * <pre>
+ *    NodeQuery PORT = NodeQuery.compile("servers/server[@name='a']/port");
+ *    ...
+ *    String port = PORT.selectValue(configurationNode);
+ * </pre>
+ *
+ * <p>
+ *    A path is a list of steps separated by <em>/</em>, each selecting
+ *    children of the nodes selected by the previous one, starting from the
+ *    children of the node the query runs on. A step is a node name, or
+ *    <em>*</em> for any name, followed by any number of conditions:
+ * </p>
+ *
+ * <ul>
+ *    <li><em>[@name='value']</em>: the attribute <em>name</em> is
+ *        <em>value</em>, in single or double quotes;</li>
+ *    <li><em>[@name]</em>: the node has the attribute <em>name</em>;</li>
+ *    <li><em>[n]</em>: the <em>n</em>-th node, from 1, among the children
+ *        of the same parent matching the step so far.</li>
+ * </ul>
+ *
+ * <p>
+ *    On the nodes built by the parser, the children matching a name and an
+ *    attribute value are found through an index built the first time it's
+ *    needed, so a query takes time in proportion to its result rather than
+ *    to the size of the tree. A query is immutable and can be shared by any
+ *    number of threads.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public final class NodeQuery {
+
+	public static final String ANY_NAME = "*";
+
+	private final String expression;
+	private final Step[] steps;
+
+	private NodeQuery(String expression, Step[] steps) {
+		this.expression = expression;
+		this.steps = steps;
+	}
+
+	/**
+	 * <p>
+	 *    Compile <em>expression</em>.
+	 * </p>
+	 *
+	 * @param expression the path expression
+	 * @return the compiled query
+	 * @throws IllegalArgumentException if the expression isn't valid
+	 */
+	public static NodeQuery compile(String expression) {
+		return new Parser(expression).parse();
+	}
+
+	/**
+	 * <p>
+	 *    Returns the nodes selected under <em>node</em>, in document order.
+	 * </p>
+	 *
+	 * @param node the node the path starts from
+	 * @return the selected nodes, empty if none
+	 */
+	public List<IHierarchicalReader> select(IHierarchicalReader node) {
+		List<IHierarchicalReader> current = Collections.singletonList(node);
+		for (Step aStep : steps) {
+			List<IHierarchicalReader> next = new ArrayList<IHierarchicalReader>();
+			for (IHierarchicalReader aNode : current) {
+				aStep.collect(aNode, next);
+			}
+			if(next.isEmpty()) {
+				return Collections.emptyList();
+			}
+			current = next;
+		}
+		return current;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the first node selected under <em>node</em>.
+	 * </p>
+	 *
+	 * @param node the node the path starts from
+	 * @return the first selected node, <em>null</em> if none
+	 */
+	public IHierarchicalReader selectFirst(IHierarchicalReader node) {
+		List<IHierarchicalReader> selected = select(node);
+		return ( selected.isEmpty()? null : selected.get(0) );
+	}
+
+	/**
+	 * <p>
+	 *    Returns the value of the first node selected under <em>node</em>.
+	 * </p>
+	 *
+	 * @param node the node the path starts from
+	 * @return the value of the first selected node, <em>null</em> if none
+	 */
+	public String selectValue(IHierarchicalReader node) {
+		IHierarchicalReader selected = selectFirst(node);
+		return ( (selected != null)? selected.getValue() : null );
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	/*
+	 * A step of the path: a node name, null for any, and its conditions.
+	 */
+	private static class Step {
+
+		private String name;
+		private Condition[] conditions;
+
+		private Step(String name, Condition[] conditions) {
+			this.name = name;
+			this.conditions = conditions;
+		}
+
+		private void collect(IHierarchicalReader node, List<IHierarchicalReader> selected) {
+			IHierarchicalReader[] candidates;
+			int firstCondition = 0;
+			ChildIndex index = ( ((name != null) && (node instanceof CompactHierarchicalReader))? ((CompactHierarchicalReader)node).childIndex() : null );
+			if(index != null) {
+				if( (conditions.length > 0) && conditions[0].isAttributeValue() ) {
+					candidates = index.children(name, conditions[0].attribute, conditions[0].value);
+					firstCondition = 1;
+				} else {
+					candidates = index.children(name);
+				}
+			} else if(node instanceof CompactHierarchicalReader) {
+				candidates = ((CompactHierarchicalReader)node).childArray();
+			} else if(node.hasChildren()) {
+				List<IHierarchicalReader> children = node.getChildren();
+				candidates = children.toArray(new IHierarchicalReader[children.size()]);
+			} else {
+				return;
+			}
+
+			boolean filterName = ( (name != null) && (index == null) );
+			if( !filterName && (firstCondition == conditions.length) ) {
+				Collections.addAll(selected, candidates);
+				return;
+			}
+
+			List<IHierarchicalReader> matching = new ArrayList<IHierarchicalReader>();
+			for (IHierarchicalReader aCandidate : candidates) {
+				if( !filterName || name.equals(aCandidate.getNodeName()) ) {
+					matching.add(aCandidate);
+				}
+			}
+			for(int i = firstCondition; i < conditions.length; i++) {
+				matching = conditions[i].filter(matching);
+			}
+			selected.addAll(matching);
+		}
+	}
+
+	/*
+	 * A condition of a step: an attribute, with or without a value, or a
+	 * position.
+	 */
+	private static class Condition {
+
+		private String attribute;
+		private String value;
+		private int position;
+
+		private Condition(String attribute, String value) {
+			this.attribute = attribute;
+			this.value = value;
+		}
+
+		private Condition(int position) {
+			this.position = position;
+		}
+
+		private boolean isAttributeValue() {
+			return ( value != null );
+		}
+
+		private List<IHierarchicalReader> filter(List<IHierarchicalReader> nodes) {
+			if(attribute == null) {
+				return ( (position <= nodes.size())? Collections.singletonList(nodes.get(position - 1)) : Collections.<IHierarchicalReader>emptyList() );
+			}
+
+			List<IHierarchicalReader> matching = new ArrayList<IHierarchicalReader>(nodes.size());
+			for (IHierarchicalReader aNode : nodes) {
+				String attributeValue = aNode.getAttributeValue(attribute);
+				if( (attributeValue != null) && ((value == null) || value.equals(attributeValue)) ) {
+					matching.add(aNode);
+				}
+			}
+			return matching;
+		}
+	}
+
+	private static class Parser {
+
+		private static final String SPECIAL_CHARS = "/[]@='\"";
+
+		private String expression;
+		private int position = 0;
+
+		private Parser(String expression) {
+			if(expression == null) {
+				throw new IllegalArgumentException("Query can't be null.");
+			}
+			this.expression = expression;
+		}
+
+		private NodeQuery parse() {
+			List<Step> steps = new ArrayList<Step>();
+			do {
+				steps.add(parseStep());
+			} while(accept('/'));
+
+			if(position < expression.length()) {
+				throw error("unexpected '" + expression.charAt(position) + "'");
+			}
+			return new NodeQuery(expression, steps.toArray(new Step[steps.size()]));
+		}
+
+		private Step parseStep() {
+			String name = parseName("node name");
+			List<Condition> conditions = new ArrayList<Condition>();
+			while(accept('[')) {
+				if(accept('@')) {
+					String attribute = parseName("attribute name");
+					String value = ( accept('=')? parseQuoted() : null );
+					conditions.add(new Condition(attribute, value));
+				} else {
+					conditions.add(new Condition(parsePosition()));
+				}
+				expect(']');
+			}
+			return new Step(ANY_NAME.equals(name)? null : name.intern(), conditions.toArray(new Condition[conditions.size()]));
+		}
+
+		private String parseName(String what) {
+			int start = position;
+			while( (position < expression.length()) && (SPECIAL_CHARS.indexOf(expression.charAt(position)) < 0) ) {
+				position++;
+			}
+			if(position == start) {
+				throw error(what + " expected");
+			}
+			return expression.substring(start, position);
+		}
+
+		private String parseQuoted() {
+			if( (position >= expression.length()) || ((expression.charAt(position) != '\'') && (expression.charAt(position) != '"')) ) {
+				throw error("quoted value expected");
+			}
+			char quote = expression.charAt(position++);
+			int end = expression.indexOf(quote, position);
+			if(end < 0) {
+				throw error("unterminated value");
+			}
+			String value = expression.substring(position, end);
+			position = end + 1;
+			return value;
+		}
+
+		private int parsePosition() {
+			int start = position;
+			while( (position < expression.length()) && Character.isDigit(expression.charAt(position)) ) {
+				position++;
+			}
+			int value = ( (position > start) && (position - start < 10) )? Integer.parseInt(expression.substring(start, position)) : 0;
+			if(value < 1) {
+				position = start;
+				throw error("position from 1 or attribute expected");
+			}
+			return value;
+		}
+
+		private boolean accept(char c) {
+			if( (position < expression.length()) && (expression.charAt(position) == c) ) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) {
+			if( !accept(c) ) {
+				throw error("'" + c + "' expected");
+			}
+		}
+
+		private IllegalArgumentException error(String reason) {
+			return new IllegalArgumentException("Invalid query <" + expression + "> at " + position + ": " + reason + ".");
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * @(#)PluginExecutionService.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.plugins;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.google.code.jconfig.annotation.ThreadSafe;
+import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.factory.ConfigurationPluginFactory;
+import com.google.code.jconfig.factory.DaemonThreadFactory;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.statistics.IReloadEvent;
+import com.google.code.jconfig.statistics.ReloadEvents;
+import com.google.code.jconfig.statistics.StatisticsService;
+
+/**
+ * <p>
+ *    Builds the configurations by invoking the plugins on a bounded pool of
+ *    threads, so the plugins run in parallel with each other and with the
+ *    parsing of the configuration files.
+ * </p>
+ *
+ * <p>
+ *    The configurations of the same plugin class are built one at a time,
+ *    unless the plugin is marked {@link ThreadSafe}: they wait in a queue of
+ *    their own, without taking a thread of the pool, so the other plugin
+ *    classes keep building in parallel. When all the threads are busy and
+ *    <em>queue capacity</em> builds are waiting, a new build runs on the
+ *    thread requesting it.
+ * </p>
+ *
+ * <p>
+ *    The settings must be changed before the first build is requested.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class PluginExecutionService {
+
+	private static final Logger logger = Logger.getLogger(PluginExecutionService.class);
+	public static final int DEFAULT_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private static int poolSize = DEFAULT_POOL_SIZE;
+	private static int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	private static ThreadPoolExecutor executorService;
+	private static ConcurrentHashMap<String, SerialBuilds> serialBuilds = new ConcurrentHashMap<String, SerialBuilds>();
+
+	/**
+	 * <p>
+	 *    Set the number of configurations that can be built at the same
+	 *    time. The default is {@link #DEFAULT_POOL_SIZE}.
+	 * </p>
+	 *
+	 * @param size the pool size
+	 */
+	public static synchronized void setPoolSize(int size) {
+		if(size < 1) {
+			throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+		}
+		poolSize = size;
+	}
+
+	/**
+	 * <p>
+	 *    Set the number of builds that can wait for a thread. The default is
+	 *    {@link #DEFAULT_QUEUE_CAPACITY}.
+	 * </p>
+	 *
+	 * @param capacity the queue capacity
+	 */
+	public static synchronized void setQueueCapacity(int capacity) {
+		if(capacity < 0) {
+			throw new IllegalArgumentException("Queue capacity can't be negative: " + capacity);
+		}
+		queueCapacity = capacity;
+	}
+
+	/**
+	 * <p>
+	 *    Start building the configuration <em>id</em> of file <em>path</em>,
+	 *    by invoking the plugin <em>pluginClass</em> on <em>node</em>.
+	 * </p>
+	 *
+	 * @param pluginClass the full name of the plugin class
+	 * @param id the configuration id
+	 * @param path the absolute path of the configuration file
+	 * @param node the configuration fragment
+	 * @return the running build, to be passed to {@link #getConfiguration(Future)}
+	 */
+	public static Future<Object> build(final String pluginClass, final String id, final String path, final IHierarchicalReader node) {
+		Callable<Object> build = new Callable<Object>() {
+
+			public Object call() throws Exception {
+				IConfigurationPlugin<?> plugin = ConfigurationPluginFactory.getPlugin(pluginClass);
+				long startTime = System.nanoTime();
+				IReloadEvent event = ReloadEvents.pluginInvocation(path, id, pluginClass);
+				Object configuration = plugin.readConfiguration(node);
+				event.commit();
+				StatisticsService.getReloadStatistics().pluginInvoked(pluginClass, System.nanoTime() - startTime);
+				return configuration;
+			}
+		};
+
+		FutureTask<Object> task = new FutureTask<Object>(build);
+		if( ConfigurationPluginFactory.isThreadSafe(pluginClass) ) {
+			if( !execute(task) ) {
+				task.run();
+			}
+		} else {
+			serialBuildsOf(pluginClass).add(task);
+		}
+		return task;
+	}
+
+	/**
+	 * <p>
+	 *    Wait for a build started by
+	 *    {@link #build(String, String, String, IHierarchicalReader)} and
+	 *    returns the configuration.
+	 * </p>
+	 *
+	 * @param build the running build
+	 * @return the configuration built by the plugin
+	 * @throws ConfigurationParsingException if the plugin can't be
+	 *                                       instantiated or fails
+	 */
+	public static Object getConfiguration(Future<Object> build) throws ConfigurationParsingException {
+		try {
+			if( (Thread.currentThread() instanceof ForkJoinWorkerThread) && !build.isDone() ) {
+				// an import being read: let the fork-join pool make up for the waiting thread
+				ForkJoinPool.managedBlock(new BuildBlocker(build));
+			}
+			return build.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw new ConfigurationParsingException(cause.getMessage(), (cause instanceof Exception)? (Exception)cause : e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConfigurationParsingException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Stop the pool threads. A build requested later starts them again.
+	 * </p>
+	 */
+	public static synchronized void shutdown() {
+		logger.info("Shutting down plugin execution resources.");
+		if(executorService != null) {
+			executorService.shutdown();
+			executorService = null;
+		}
+	}
+
+	private static synchronized ThreadPoolExecutor executor() {
+		if(executorService == null) {
+			BlockingQueue<Runnable> queue = (queueCapacity > 0)? new LinkedBlockingQueue<Runnable>(queueCapacity) : new SynchronousQueue<Runnable>();
+			executorService = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, new DaemonThreadFactory());
+			executorService.allowCoreThreadTimeOut(true);
+			logger.info("Building configurations on " + poolSize + " threads, at most " + queueCapacity + " waiting.");
+		}
+		return executorService;
+	}
+
+	/*
+	 * Returns false if the pool rejected the task.
+	 */
+	private static boolean execute(Runnable task) {
+		try {
+			executor().execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private static SerialBuilds serialBuildsOf(String pluginClass) {
+		SerialBuilds builds = serialBuilds.get(pluginClass);
+		if(builds == null) {
+			SerialBuilds newBuilds = new SerialBuilds();
+			builds = serialBuilds.putIfAbsent(pluginClass, newBuilds);
+			if(builds == null) {
+				builds = newBuilds;
+			}
+		}
+		return builds;
+	}
+
+	/*
+	 * The builds of a plugin class that isn't thread safe. At most one of
+	 * them is on the pool: it runs the first build waiting, then goes back to
+	 * the end of the pool queue if others are left, so a class with many
+	 * builds takes a single thread and doesn't delay the other classes.
+	 */
+	private static class SerialBuilds implements Runnable {
+
+		private Queue<FutureTask<Object>> waiting = new ArrayDeque<FutureTask<Object>>();
+		private boolean scheduled = false;
+
+		private void add(FutureTask<Object> build) {
+			synchronized (this) {
+				waiting.add(build);
+				if(scheduled) {
+					return;
+				}
+				scheduled = true;
+			}
+			if( !execute(this) ) {
+				run();
+			}
+		}
+
+		public void run() {
+			do {
+				FutureTask<Object> build;
+				synchronized (this) {
+					build = waiting.poll();
+				}
+				build.run();
+				synchronized (this) {
+					if(waiting.isEmpty()) {
+						scheduled = false;
+						return;
+					}
+				}
+				// the pool is full: the next build runs on this thread
+			} while( !execute(this) );
+		}
+	}
+
+	private static class BuildBlocker implements ForkJoinPool.ManagedBlocker {
+
+		private Future<Object> build;
+
+		private BuildBlocker(Future<Object> build) {
+			this.build = build;
+		}
+
+		public boolean block() throws InterruptedException {
+			try {
+				build.get();
+			} catch (ExecutionException e) {
+				// reported by getConfiguration
+			}
+			return true;
+		}
+
+		public boolean isReleasable() {
+			return build.isDone();
+		}
+	}
+}
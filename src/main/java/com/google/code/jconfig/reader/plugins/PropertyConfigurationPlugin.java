@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.google.code.jconfig.annotation.Cacheable;
+import com.google.code.jconfig.annotation.ThreadSafe;
 import com.google.code.jconfig.model.BasicConfiguration;
 import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
 
@@ -52,6 +53,7 @@ import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
  */
 @Cacheable
+@ThreadSafe
 public class PropertyConfigurationPlugin implements IConfigurationPlugin<BasicConfiguration> {
 
 	/*
@@ -0,0 +1,39 @@
+/*
+ * @(#)IReloadEvent.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+/**
+ * <p>
+ *    A phase of a reload being recorded, returned already started by
+ *    {@link ReloadEvents}.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public interface IReloadEvent {
+
+	/**
+	 * <p>
+	 *    End the phase and record it.
+	 * </p>
+	 */
+	public void commit();
+}
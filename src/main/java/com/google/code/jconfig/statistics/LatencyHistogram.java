@@ -0,0 +1,166 @@
+/*
+ * @(#)LatencyHistogram.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *    Records measured times and gives their count, total, maximum and
+ *    percentiles.
+ * </p>
+ *
+ * <p>
+ *    The times are counted in buckets: four for every power of two, so a
+ *    percentile is approximated by at most 25% of its value. Recording takes
+ *    no lock and allocates nothing.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS);
+
+	private LongAdder count = new LongAdder();
+	private LongAdder total = new LongAdder();
+	private AtomicLong max = new AtomicLong();
+	private AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * <p>
+	 *    Record a measured time. Negative times are recorded as 0.
+	 * </p>
+	 *
+	 * @param time the time measured
+	 */
+	public void record(long time) {
+		long value = Math.max(0L, time);
+		count.increment();
+		total.add(value);
+		buckets.incrementAndGet(bucketOf(value));
+		long currentMax = max.get();
+		while( (value > currentMax) && !max.compareAndSet(currentMax, value) ) {
+			currentMax = max.get();
+		}
+	}
+
+	/**
+	 * @return the number of times measured
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the sum of the times measured
+	 */
+	public long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * @return the maximum time measured
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the average time measured, 0 if nothing was measured
+	 */
+	public long getAverage() {
+		long measures = count.sum();
+		return ( (measures > 0)? total.sum() / measures : 0L );
+	}
+
+	/**
+	 * <p>
+	 *    Returns the time below which <em>percentile</em> percent of the
+	 *    measures fall, 0 if nothing was measured.
+	 * </p>
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the approximated time at the percentile
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long measures = 0L;
+		for(int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			measures += counts[i];
+		}
+		if(measures == 0L) {
+			return 0L;
+		}
+
+		long rank = (long)Math.ceil(measures * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+		long seen = 0L;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if( (seen >= rank) && (seen > 0L) ) {
+				return Math.min(upperBoundOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * <p>
+	 *    Forget all the times measured.
+	 * </p>
+	 */
+	public void reset() {
+		count.reset();
+		total.reset();
+		max.set(0L);
+		for(int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0L);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[count=" + getCount() + ", average=" + getAverage() + ", p99=" + getPercentile(99) + ", max=" + getMax() + "]";
+	}
+
+	private static int bucketOf(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int)value;
+		}
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + subBucket;
+	}
+
+	private static long upperBoundOf(int bucket) {
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket / SUB_BUCKETS) - 1;
+		long lower = (long)(SUB_BUCKETS + (bucket % SUB_BUCKETS)) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * @(#)ReloadEventFactory.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.google.code.jconfig.statistics;
+
+/**
+ * <p>
+ *    Creates the events of {@link ReloadEvents}. The Flight Recorder
+ *    implementation is compiled only on a JDK that has Flight Recorder and
+ *    loaded by name, so the library still builds and runs without it.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+abstract class ReloadEventFactory {
+
+	abstract IReloadEvent fileRead(String path);
+
+	abstract IReloadEvent parse(String path);
+
+	abstract IReloadEvent pluginInvocation(String path, String id, String pluginClass);
+
+	abstract IReloadEvent diff(String path);
+
+	abstract IReloadEvent clone(String id, String pluginClass);
+
+	abstract IReloadEvent dispatch(String id, String listenerClass);
+}
@@ -0,0 +1,142 @@
+/*
+ * @(#)ReloadEvents.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import org.apache.log4j.Logger;
+
+/**
+ * <p>
+ *    Emits Java Flight Recorder events for the phases of a reload: reading
+ *    and parsing every file, building every configuration with its plugin,
+ *    finding the changes, cloning a configuration and notifying a listener.
+ *    Every event carries the file path, configuration id and plugin class it
+ *    refers to, when they apply.
+ * </p>
+ *
+ * <p>
+ *    On a Java runtime without Flight Recorder, when the library was built
+ *    on a JDK without it, or when an event isn't enabled in the recording,
+ *    the methods return an event doing nothing.
+ *    The events are in the <em>jConfig</em> category, named
+ *    <em>com.google.code.jconfig.*</em>.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class ReloadEvents {
+
+	private static final Logger logger = Logger.getLogger(ReloadEvents.class);
+	private static final String FLIGHT_RECORDER_EVENTS = "com.google.code.jconfig.statistics.JfrEvents";
+	private static final ReloadEventFactory events = loadFlightRecorderEvents();
+
+	/**
+	 * The event doing nothing.
+	 */
+	public static final IReloadEvent NO_EVENT = new IReloadEvent() {
+		public void commit() { }
+	};
+
+	/**
+	 * <p>
+	 *    Start reading the content of a configuration file.
+	 * </p>
+	 *
+	 * @param path the configuration file
+	 * @return the started event
+	 */
+	public static IReloadEvent fileRead(String path) {
+		return ( (events != null)? events.fileRead(path) : NO_EVENT );
+	}
+
+	/**
+	 * <p>
+	 *    Start parsing a configuration file, imported files included.
+	 * </p>
+	 *
+	 * @param path the configuration file
+	 * @return the started event
+	 */
+	public static IReloadEvent parse(String path) {
+		return ( (events != null)? events.parse(path) : NO_EVENT );
+	}
+
+	/**
+	 * <p>
+	 *    Start building a configuration with its plugin.
+	 * </p>
+	 *
+	 * @param path the configuration file
+	 * @param id the configuration id
+	 * @param pluginClass the plugin class
+	 * @return the started event
+	 */
+	public static IReloadEvent pluginInvocation(String path, String id, String pluginClass) {
+		return ( (events != null)? events.pluginInvocation(path, id, pluginClass) : NO_EVENT );
+	}
+
+	/**
+	 * <p>
+	 *    Start finding the configurations changed by a reload.
+	 * </p>
+	 *
+	 * @param path the root configuration file
+	 * @return the started event
+	 */
+	public static IReloadEvent diff(String path) {
+		return ( (events != null)? events.diff(path) : NO_EVENT );
+	}
+
+	/**
+	 * <p>
+	 *    Start cloning a configuration for a listener.
+	 * </p>
+	 *
+	 * @param id the configuration id
+	 * @param pluginClass the plugin class
+	 * @return the started event
+	 */
+	public static IReloadEvent clone(String id, String pluginClass) {
+		return ( (events != null)? events.clone(id, pluginClass) : NO_EVENT );
+	}
+
+	/**
+	 * <p>
+	 *    Start notifying a configuration to a listener.
+	 * </p>
+	 *
+	 * @param id the configuration id
+	 * @param listenerClass the listener class
+	 * @return the started event
+	 */
+	public static IReloadEvent dispatch(String id, String listenerClass) {
+		return ( (events != null)? events.dispatch(id, listenerClass) : NO_EVENT );
+	}
+
+	private static ReloadEventFactory loadFlightRecorderEvents() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (ReloadEventFactory)Class.forName(FLIGHT_RECORDER_EVENTS).newInstance();
+		} catch (Throwable e) {
+			logger.debug("Java Flight Recorder not available, reload events disabled.");
+			return null;
+		}
+	}
+}
@@ -0,0 +1,380 @@
+/*
+ * @(#)ReloadStatistics.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.code.jconfig.listener.DispatchStatistics.ExecutionTime;
+import com.google.code.jconfig.listener.ListenerDispatchService;
+
+/**
+ * <p>
+ *    Counters and times about the configuration reloads: how many reloads
+ *    completed or failed, how long they took and where the time went
+ *    (parsing every file, building configurations with every plugin,
+ *    finding the changes, cloning and notifying the listeners).
+ * </p>
+ *
+ * <p>
+ *    The times are recorded by the library while reloading, without locks.
+ *    All the times are in nanoseconds.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public class ReloadStatistics implements ReloadStatisticsMBean {
+
+	private LongAdder parseFailureCount = new LongAdder();
+	private LongAdder totalChangedIds = new LongAdder();
+	private LongAdder readerPoolHits = new LongAdder();
+	private LongAdder readerPoolMisses = new LongAdder();
+	private volatile long lastReloadTime;
+	private volatile int lastChangedIds;
+	private LatencyHistogram reloadTime = new LatencyHistogram();
+	private LatencyHistogram diffTime = new LatencyHistogram();
+	private LatencyHistogram cloneTime = new LatencyHistogram();
+	private ConcurrentHashMap<String, LatencyHistogram> fileParseTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+	private ConcurrentHashMap<String, LatencyHistogram> pluginBuildTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReloadCount()
+	 */
+	public long getReloadCount() {
+		return reloadTime.getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getParseFailureCount()
+	 */
+	public long getParseFailureCount() {
+		return parseFailureCount.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getLastReloadTime()
+	 */
+	public long getLastReloadTime() {
+		return lastReloadTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReloadTime50thPercentile()
+	 */
+	public long getReloadTime50thPercentile() {
+		return reloadTime.getPercentile(50);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReloadTime95thPercentile()
+	 */
+	public long getReloadTime95thPercentile() {
+		return reloadTime.getPercentile(95);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReloadTime99thPercentile()
+	 */
+	public long getReloadTime99thPercentile() {
+		return reloadTime.getPercentile(99);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getMaxReloadTime()
+	 */
+	public long getMaxReloadTime() {
+		return reloadTime.getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getAverageDiffTime()
+	 */
+	public long getAverageDiffTime() {
+		return diffTime.getAverage();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getAverageCloneTime()
+	 */
+	public long getAverageCloneTime() {
+		return cloneTime.getAverage();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getLastChangedIds()
+	 */
+	public int getLastChangedIds() {
+		return lastChangedIds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getTotalChangedIds()
+	 */
+	public long getTotalChangedIds() {
+		return totalChangedIds.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getAverageFileParseTimes()
+	 */
+	public Map<String, Long> getAverageFileParseTimes() {
+		return averagesOf(fileParseTimes);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getAveragePluginBuildTimes()
+	 */
+	public Map<String, Long> getAveragePluginBuildTimes() {
+		return averagesOf(pluginBuildTimes);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getAverageListenerNotificationTimes()
+	 */
+	public Map<String, Long> getAverageListenerNotificationTimes() {
+		Map<String, Long> averages = new HashMap<String, Long>();
+		for (Entry<String, ExecutionTime> anEntry : ListenerDispatchService.getStatistics().getListenerExecutionTimes().entrySet()) {
+			averages.put(anEntry.getKey(), anEntry.getValue().getAverage());
+		}
+		return averages;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReaderPoolHits()
+	 */
+	public long getReaderPoolHits() {
+		return readerPoolHits.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#getReaderPoolMisses()
+	 */
+	public long getReaderPoolMisses() {
+		return readerPoolMisses.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.statistics.ReloadStatisticsMBean#reset()
+	 */
+	public void reset() {
+		parseFailureCount.reset();
+		totalChangedIds.reset();
+		readerPoolHits.reset();
+		readerPoolMisses.reset();
+		lastReloadTime = 0L;
+		lastChangedIds = 0;
+		reloadTime.reset();
+		diffTime.reset();
+		cloneTime.reset();
+		fileParseTimes.clear();
+		pluginBuildTimes.clear();
+	}
+
+	/**
+	 * @return the times of the completed reloads
+	 */
+	public LatencyHistogram getReloadTime() {
+		return reloadTime;
+	}
+
+	/**
+	 * @return the times spent finding the changed configurations
+	 */
+	public LatencyHistogram getDiffTime() {
+		return diffTime;
+	}
+
+	/**
+	 * @return the times spent cloning a configuration for a listener
+	 */
+	public LatencyHistogram getCloneTime() {
+		return cloneTime;
+	}
+
+	/**
+	 * <p>
+	 *    Returns the parse times by configuration file. The time of a file
+	 *    includes building its configurations but not parsing the files it
+	 *    imports.
+	 * </p>
+	 *
+	 * @return an unmodifiable view of the file parse times
+	 */
+	public Map<String, LatencyHistogram> getFileParseTimes() {
+		return Collections.unmodifiableMap(fileParseTimes);
+	}
+
+	/**
+	 * @return an unmodifiable view of the configuration build times, by
+	 *         plugin class
+	 */
+	public Map<String, LatencyHistogram> getPluginBuildTimes() {
+		return Collections.unmodifiableMap(pluginBuildTimes);
+	}
+
+	/**
+	 * <p>
+	 *    Record a completed reload.
+	 * </p>
+	 *
+	 * @param time the time taken by the reload
+	 * @param changedIds the number of configuration ids changed
+	 */
+	public void reloaded(long time, int changedIds) {
+		reloadTime.record(time);
+		lastReloadTime = time;
+		lastChangedIds = changedIds;
+		totalChangedIds.add(changedIds);
+	}
+
+	/**
+	 * <p>
+	 *    Record a reload failed for a parsing error.
+	 * </p>
+	 */
+	public void parseFailed() {
+		parseFailureCount.increment();
+	}
+
+	/**
+	 * <p>
+	 *    Record the parse time of a configuration file.
+	 * </p>
+	 *
+	 * @param path the configuration file
+	 * @param time the parse time
+	 */
+	public void fileParsed(String path, long time) {
+		histogramOf(fileParseTimes, path).record(time);
+	}
+
+	/**
+	 * <p>
+	 *    Record the time a plugin took for building a configuration.
+	 * </p>
+	 *
+	 * @param pluginClass the plugin class
+	 * @param time the build time
+	 */
+	public void pluginInvoked(String pluginClass, long time) {
+		histogramOf(pluginBuildTimes, pluginClass).record(time);
+	}
+
+	/**
+	 * <p>
+	 *    Record a configuration reader taken for a read.
+	 * </p>
+	 *
+	 * @param pooled <em>true</em> if the reader came from the pool,
+	 *               <em>false</em> if it was created
+	 */
+	public void readerAcquired(boolean pooled) {
+		if(pooled) {
+			readerPoolHits.increment();
+		} else {
+			readerPoolMisses.increment();
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Record the time spent finding the changed configurations.
+	 * </p>
+	 *
+	 * @param time the diff time
+	 */
+	public void diffed(long time) {
+		diffTime.record(time);
+	}
+
+	/**
+	 * <p>
+	 *    Record the time spent cloning a configuration for a listener.
+	 * </p>
+	 *
+	 * @param time the clone time
+	 */
+	public void cloned(long time) {
+		cloneTime.record(time);
+	}
+
+	/**
+	 * <p>
+	 *    Forget the parse times of the files not in <em>paths</em>, no longer
+	 *    part of the configuration.
+	 * </p>
+	 *
+	 * @param paths the configuration files still in use
+	 */
+	public void retainFiles(Collection<String> paths) {
+		fileParseTimes.keySet().retainAll(paths);
+	}
+
+	@Override
+	public String toString() {
+		return "ReloadStatistics [reloadTime=" + reloadTime + ", parseFailureCount=" + parseFailureCount
+		       + ", lastChangedIds=" + lastChangedIds + ", diffTime=" + diffTime + ", cloneTime=" + cloneTime
+		       + ", fileParseTimes=" + fileParseTimes + ", pluginBuildTimes=" + pluginBuildTimes
+		       + ", readerPoolHits=" + readerPoolHits + ", readerPoolMisses=" + readerPoolMisses + "]";
+	}
+
+	private static LatencyHistogram histogramOf(ConcurrentHashMap<String, LatencyHistogram> histograms, String key) {
+		LatencyHistogram histogram = histograms.get(key);
+		if(histogram == null) {
+			LatencyHistogram newHistogram = new LatencyHistogram();
+			histogram = histograms.putIfAbsent(key, newHistogram);
+			if(histogram == null) {
+				histogram = newHistogram;
+			}
+		}
+		return histogram;
+	}
+
+	private static Map<String, Long> averagesOf(Map<String, LatencyHistogram> histograms) {
+		Map<String, Long> averages = new HashMap<String, Long>();
+		for (Entry<String, LatencyHistogram> anEntry : histograms.entrySet()) {
+			averages.put(anEntry.getKey(), anEntry.getValue().getAverage());
+		}
+		return averages;
+	}
+}
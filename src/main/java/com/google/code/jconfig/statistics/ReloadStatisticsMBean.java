@@ -0,0 +1,125 @@
+/*
+ * @(#)ReloadStatisticsMBean.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.util.Map;
+
+/**
+ * <p>
+ *    The management interface of {@link ReloadStatistics}, registered in the
+ *    platform MBean server as {@link StatisticsService#OBJECT_NAME}.
+ * </p>
+ *
+ * <p>
+ *    All the times are in nanoseconds.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public interface ReloadStatisticsMBean {
+
+	/**
+	 * @return the number of reloads completed
+	 */
+	public long getReloadCount();
+
+	/**
+	 * @return the number of reloads failed for a parsing error
+	 */
+	public long getParseFailureCount();
+
+	/**
+	 * @return the time taken by the last reload
+	 */
+	public long getLastReloadTime();
+
+	/**
+	 * @return the median reload time
+	 */
+	public long getReloadTime50thPercentile();
+
+	/**
+	 * @return the 95th percentile of the reload time
+	 */
+	public long getReloadTime95thPercentile();
+
+	/**
+	 * @return the 99th percentile of the reload time
+	 */
+	public long getReloadTime99thPercentile();
+
+	/**
+	 * @return the longest reload time
+	 */
+	public long getMaxReloadTime();
+
+	/**
+	 * @return the average time spent finding the changed configurations
+	 */
+	public long getAverageDiffTime();
+
+	/**
+	 * @return the average time spent cloning a configuration for a listener
+	 */
+	public long getAverageCloneTime();
+
+	/**
+	 * @return the number of configuration ids changed by the last reload
+	 */
+	public int getLastChangedIds();
+
+	/**
+	 * @return the number of configuration ids changed by all the reloads
+	 */
+	public long getTotalChangedIds();
+
+	/**
+	 * @return the average parse time, by configuration file
+	 */
+	public Map<String, Long> getAverageFileParseTimes();
+
+	/**
+	 * @return the average configuration build time, by plugin class
+	 */
+	public Map<String, Long> getAveragePluginBuildTimes();
+
+	/**
+	 * @return the average notification time, by listener class
+	 */
+	public Map<String, Long> getAverageListenerNotificationTimes();
+
+	/**
+	 * @return the number of reads served by a pooled configuration reader
+	 */
+	public long getReaderPoolHits();
+
+	/**
+	 * @return the number of reads that had to create a configuration reader
+	 */
+	public long getReaderPoolMisses();
+
+	/**
+	 * <p>
+	 *    Forget all the times and counters recorded so far.
+	 * </p>
+	 */
+	public void reset();
+}
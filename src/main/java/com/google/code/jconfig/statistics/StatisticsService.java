@@ -0,0 +1,102 @@
+/*
+ * @(#)StatisticsService.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * <p>
+ *    Holds the {@link ReloadStatistics} of the library and publishes them
+ *    through JMX.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+public abstract class StatisticsService {
+
+	private static final Logger logger = Logger.getLogger(StatisticsService.class);
+	public static final String OBJECT_NAME = "com.google.code.jconfig:type=ReloadStatistics";
+
+	private static final ReloadStatistics reloadStatistics = new ReloadStatistics();
+	private static boolean registered = false;
+
+	/**
+	 * <p>
+	 *    Returns the statistics of the reloads.
+	 * </p>
+	 *
+	 * @return the reload statistics
+	 */
+	public static ReloadStatistics getReloadStatistics() {
+		return reloadStatistics;
+	}
+
+	/**
+	 * <p>
+	 *    Register the reload statistics in the platform MBean server as
+	 *    {@link #OBJECT_NAME}. A failure is logged and otherwise ignored.
+	 * </p>
+	 */
+	public static synchronized void registerMBean() {
+		if(registered) {
+			return;
+		}
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if( !server.isRegistered(name) ) {
+				server.registerMBean(reloadStatistics, name);
+			}
+			registered = true;
+		} catch (Exception e) {
+			logger.warn("Unable to register the reload statistics MBean: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Remove the reload statistics from the platform MBean server.
+	 * </p>
+	 */
+	public static synchronized void unregisterMBean() {
+		if(!registered) {
+			return;
+		}
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if( server.isRegistered(name) ) {
+				server.unregisterMBean(name);
+			}
+		} catch (Exception e) {
+			logger.warn("Unable to unregister the reload statistics MBean: " + e.getMessage());
+		} finally {
+			registered = false;
+		}
+	}
+}
@@ -20,7 +20,10 @@
 
 package com.google.code.jconfig.transformer;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
 
 import com.google.code.jconfig.exception.NodeTransformationException;
 import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
@@ -28,7 +31,15 @@ import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
 /**
  * <p>
  *    An implementation of this interface can transform any
- *    {@link IHierarchicalReader} node to an {@link OutputStream}
+ *    {@link IHierarchicalReader} node to xml, as a string or written to an
+ *    {@link OutputStream} or any {@link Appendable}, such as a
+ *    {@link Writer}.
+ * </p>
+ *
+ * <p>
+ *    Only the transformation to a string must be implemented: by default the
+ *    other ones write its result. An implementation able to write the xml as
+ *    it goes can override them.
  * </p>
  *
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
@@ -64,4 +75,45 @@ public interface INodeTransformer {
 	 * @throws NodeTransformationException
 	 */
 	public String doTransformation(IHierarchicalReader root) throws NodeTransformationException;
+	
+	/**
+	 * <p>
+	 *    Transform a {@link IHierarchicalReader} root to xml, appended to
+	 *    <em>output</em>.
+	 * </p>
+	 * 
+	 * @param root the initial node for the transformation
+	 * @param output where the xml is appended, such as a {@link Writer}
+	 * @throws NodeTransformationException if the output fails or a value holds
+	 *                                     a character xml can't represent
+	 */
+	public default void doTransformation(IHierarchicalReader root, Appendable output) throws NodeTransformationException {
+		String xml = doTransformation(root);
+		try {
+			output.append(xml);
+		} catch (IOException e) {
+			throw new NodeTransformationException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * <p>
+	 *    Transform a {@link IHierarchicalReader} root to xml, written to
+	 *    <em>output</em> in UTF-8. The stream is flushed, not closed.
+	 * </p>
+	 * 
+	 * @param root the initial node for the transformation
+	 * @param output where the xml is written
+	 * @throws NodeTransformationException if the output fails or a value holds
+	 *                                     a character xml can't represent
+	 */
+	public default void doTransformation(IHierarchicalReader root, OutputStream output) throws NodeTransformationException {
+		byte[] xml = doTransformation(root).getBytes(Charset.forName("UTF-8"));
+		try {
+			output.write(xml);
+			output.flush();
+		} catch (IOException e) {
+			throw new NodeTransformationException(e.getMessage(), e);
+		}
+	}
 }
@@ -20,26 +20,35 @@
 
 package com.google.code.jconfig.transformer;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Iterator;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
 import com.google.code.jconfig.exception.NodeTransformationException;
 import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
 
 /**
  * <p>
- *    An implementation of {@link INodeTransformer} that uses DOM and standard
- *    java {@link Transformer} class to transform the data.
+ *    An implementation of {@link INodeTransformer} that walks the nodes and
+ *    writes the xml straight to the output, escaping the text and the
+ *    attribute values. No document is built in memory.
+ * </p>
+ *
+ * <p>
+ *    As when building a document, element and attribute names must be xml
+ *    names and the text must be made of characters xml 1.0 can represent,
+ *    or a {@link NodeTransformationException} is thrown.
+ * </p>
+ *
+ * <p>
+ *    The attributes of an element are written sorted by name, so the same
+ *    node is always written the same way. With pretty format every element
+ *    starts on its own line, indented by 3 spaces for each level.
  * </p>
  *
  * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
@@ -48,9 +57,10 @@ public class NodeTransformer implements INodeTransformer {
 
 	private boolean omitXmlDeclaration = false;
 	private boolean prettyFormat = false;
-	private final static String INDENT_AMOUNT = "3";
-	private final static String YES = "yes";
-	private final static String NO = "no";
+	private final static String INDENT = "   ";
+	private final static String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+	private final static String[] NO_ATTRIBUTES = new String[0];
 	
 	private NodeTransformer() {}
 	
@@ -86,43 +96,199 @@ public class NodeTransformer implements INodeTransformer {
 	 * @see com.google.code.jconfig.transformer.INodeTransformer#doTransformation(com.google.code.jconfig.reader.hierarchical.IHierarchicalReader)
 	 */
 	public String doTransformation(IHierarchicalReader root) throws NodeTransformationException {
+		StringBuilder output = new StringBuilder(256);
+		doTransformation(root, output);
+		return output.toString();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.transformer.INodeTransformer#doTransformation(com.google.code.jconfig.reader.hierarchical.IHierarchicalReader, java.lang.Appendable)
+	 */
+	public void doTransformation(IHierarchicalReader root, Appendable output) throws NodeTransformationException {
 		try {
-			Transformer transformer = TransformerFactory.newInstance().newTransformer();
-			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, (omitXmlDeclaration? YES : NO) );
-			transformer.setOutputProperty(OutputKeys.INDENT, (prettyFormat? YES : NO) );
-			transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", INDENT_AMOUNT);
-		
-			Document domDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-			domDocument.appendChild(traverseHierarchy(root, domDocument));
-			
-			StreamResult streamResult = new StreamResult(new ByteArrayOutputStream());
-			transformer.transform(new DOMSource(domDocument), streamResult);
-			return new String( ((ByteArrayOutputStream)streamResult.getOutputStream()).toByteArray() );
-		} catch (Throwable e) {
+			if( !omitXmlDeclaration ) {
+				output.append(XML_DECLARATION);
+				if(prettyFormat) {
+					output.append('\n');
+				}
+			}
+			writeNode(root, output, 0);
+			if(prettyFormat) {
+				output.append('\n');
+			}
+		} catch (IOException e) {
+			throw new NodeTransformationException(e.getMessage(), e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.code.jconfig.transformer.INodeTransformer#doTransformation(com.google.code.jconfig.reader.hierarchical.IHierarchicalReader, java.io.OutputStream)
+	 */
+	public void doTransformation(IHierarchicalReader root, OutputStream output) throws NodeTransformationException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+		doTransformation(root, writer);
+		try {
+			// the stream belongs to the caller: flushed, not closed
+			writer.flush();
+		} catch (IOException e) {
 			throw new NodeTransformationException(e.getMessage(), e);
 		}
 	}
 	
-	private Element traverseHierarchy(IHierarchicalReader currentRoot, Document domDocument) {
-		Element domElement = domDocument.createElement(currentRoot.getNodeName());
-		// set the text value if present
-		if(currentRoot.getValue() != null) {
-			domElement.setTextContent(currentRoot.getValue());
+	private void writeNode(IHierarchicalReader node, Appendable output, int depth) throws IOException, NodeTransformationException {
+		String name = checkName(node.getNodeName());
+		output.append('<').append(name);
+		for (String anAttribute : sortedAttributeNames(node)) {
+			output.append(' ').append(checkName(anAttribute)).append("=\"");
+			escape(node.getAttributeValue(anAttribute), output, true);
+			output.append('"');
 		}
 		
-		// iterate over its attributes if any
-		Iterator<String> attributeItr = currentRoot.getAttributeNames();
-		while(attributeItr.hasNext()) {
-			String attrName = attributeItr.next();
-			domElement.setAttribute(attrName, currentRoot.getAttributeValue(attrName));
+		String value = node.getValue();
+		boolean hasChildren = node.hasChildren();
+		if( (value == null) && !hasChildren ) {
+			output.append("/>");
+			return;
 		}
+		output.append('>');
 		
-		// iterate over its children if any
-		for (IHierarchicalReader child : currentRoot.getChildren()) {
-			Element childElem = traverseHierarchy(child, domDocument);
-			domElement.appendChild(childElem);
+		if( !hasChildren ) {
+			escape(value, output, false);
+		} else {
+			if(value != null) {
+				newLine(output, depth + 1);
+				escape(value, output, false);
+			}
+			for (IHierarchicalReader aChild : node.getChildren()) {
+				newLine(output, depth + 1);
+				writeNode(aChild, output, depth + 1);
+			}
+			newLine(output, depth);
 		}
-		
-		return domElement;
+		output.append("</").append(name).append('>');
+	}
+	
+	private void newLine(Appendable output, int depth) throws IOException {
+		if(prettyFormat) {
+			output.append('\n');
+			for(int i = 0; i < depth; i++) {
+				output.append(INDENT);
+			}
+		}
+	}
+	
+	private static String[] sortedAttributeNames(IHierarchicalReader node) {
+		int count = node.getAttributeCount();
+		if(count == 0) {
+			return NO_ATTRIBUTES;
+		}
+		String[] names = new String[count];
+		Iterator<String> attributeItr = node.getAttributeNames();
+		for(int i = 0; i < count; i++) {
+			names[i] = attributeItr.next();
+		}
+		if(count > 1) {
+			Arrays.sort(names);
+		}
+		return names;
+	}
+	
+	/*
+	 * Returns name if it's an xml 1.0 name, a name start character followed by
+	 * name characters.
+	 */
+	private static String checkName(String name) throws NodeTransformationException {
+		if( (name == null) || (name.length() == 0) ) {
+			throw new NodeTransformationException("Empty name not allowed in xml.");
+		}
+		int i = 0;
+		while(i < name.length()) {
+			int c = name.codePointAt(i);
+			if( !((i == 0)? isNameStartChar(c) : isNameChar(c)) ) {
+				throw new NodeTransformationException("Name <" + name + "> not allowed in xml.");
+			}
+			i += Character.charCount(c);
+		}
+		return name;
+	}
+	
+	private static boolean isNameStartChar(int c) {
+		if(c < 0x80) {
+			return ( ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '_') || (c == ':') );
+		}
+		return ( ((c >= 0xC0) && (c <= 0xD6)) || ((c >= 0xD8) && (c <= 0xF6)) || ((c >= 0xF8) && (c <= 0x2FF))
+		         || ((c >= 0x370) && (c <= 0x37D)) || ((c >= 0x37F) && (c <= 0x1FFF)) || ((c >= 0x200C) && (c <= 0x200D))
+		         || ((c >= 0x2070) && (c <= 0x218F)) || ((c >= 0x2C00) && (c <= 0x2FEF)) || ((c >= 0x3001) && (c <= 0xD7FF))
+		         || ((c >= 0xF900) && (c <= 0xFDCF)) || ((c >= 0xFDF0) && (c <= 0xFFFD)) || ((c >= 0x10000) && (c <= 0xEFFFF)) );
+	}
+	
+	private static boolean isNameChar(int c) {
+		return ( isNameStartChar(c) || ((c >= '0') && (c <= '9')) || (c == '-') || (c == '.') || (c == 0xB7)
+		         || ((c >= 0x300) && (c <= 0x36F)) || ((c >= 0x203F) && (c <= 0x2040)) );
+	}
+	
+	/*
+	 * Append text escaped, copying the runs of characters that need no
+	 * escaping in one call. The control characters other than tab, line feed
+	 * and carriage return can't be written in xml 1.0, not even as character
+	 * references, and neither can a surrogate not part of a pair.
+	 */
+	private static void escape(String text, Appendable output, boolean attribute) throws IOException, NodeTransformationException {
+		if(text == null) {
+			return;
+		}
+		int start = 0;
+		int length = text.length();
+		for(int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			String replacement;
+			switch (c) {
+				case '<':
+					replacement = "&lt;";
+					break;
+				case '>':
+					replacement = "&gt;";
+					break;
+				case '&':
+					replacement = "&amp;";
+					break;
+				case '"':
+					replacement = ( attribute? "&quot;" : null );
+					break;
+				case '\n':
+				case '\t':
+					replacement = ( attribute? "&#" + (int)c + ";" : null );
+					break;
+				case '\r':
+					replacement = "&#13;";
+					break;
+				case '\uFFFE':
+				case '\uFFFF':
+					throw illegalCharacter(c);
+				default:
+					if(c < ' ') {
+						throw illegalCharacter(c);
+					}
+					if( Character.isSurrogate(c) ) {
+						if( !Character.isHighSurrogate(c) || (i + 1 == length) || !Character.isLowSurrogate(text.charAt(i + 1)) ) {
+							throw illegalCharacter(c);
+						}
+						// the pair is copied as it is
+						i++;
+					}
+					replacement = null;
+			}
+			if(replacement != null) {
+				output.append(text, start, i).append(replacement);
+				start = i + 1;
+			}
+		}
+		output.append(text, start, length);
+	}
+	
+	private static NodeTransformationException illegalCharacter(char c) {
+		return new NodeTransformationException("Character 0x" + Integer.toHexString(c) + " not allowed in xml.");
 	}
 }
@@ -0,0 +1,177 @@
+/*
+ * @(#)JfrEvents.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>
+ *    The Flight Recorder events of {@link ReloadEvents}. This class is only
+ *    compiled on a JDK that has Flight Recorder (the <em>jfr</em> profile)
+ *    and only loaded when the Java runtime has it.
+ * </p>
+ *
+ * @author Gabriele Fedeli (gabriele.fedeli@gmail.com)
+ */
+class JfrEvents extends ReloadEventFactory {
+
+	private static final String CATEGORY = "jConfig";
+	private static final String PREFIX = "com.google.code.jconfig.";
+
+	@Override
+	IReloadEvent fileRead(String path) {
+		FileReadEvent event = new FileReadEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.path = path;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	IReloadEvent parse(String path) {
+		ParseEvent event = new ParseEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.path = path;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	IReloadEvent pluginInvocation(String path, String id, String pluginClass) {
+		PluginInvocationEvent event = new PluginInvocationEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.path = path;
+		event.id = id;
+		event.pluginClass = pluginClass;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	IReloadEvent diff(String path) {
+		DiffEvent event = new DiffEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.path = path;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	IReloadEvent clone(String id, String pluginClass) {
+		CloneEvent event = new CloneEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.id = id;
+		event.pluginClass = pluginClass;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	IReloadEvent dispatch(String id, String listenerClass) {
+		DispatchEvent event = new DispatchEvent();
+		if( !event.isEnabled() ) {
+			return ReloadEvents.NO_EVENT;
+		}
+		event.id = id;
+		event.listenerClass = listenerClass;
+		event.begin();
+		return event;
+	}
+
+	@Name(PREFIX + "FileRead")
+	@Label("Configuration File Read")
+	@Category(CATEGORY)
+	static class FileReadEvent extends Event implements IReloadEvent {
+
+		@Label("File Path")
+		String path;
+	}
+
+	@Name(PREFIX + "Parse")
+	@Label("Configuration Parse")
+	@Category(CATEGORY)
+	static class ParseEvent extends Event implements IReloadEvent {
+
+		@Label("File Path")
+		String path;
+	}
+
+	@Name(PREFIX + "PluginInvocation")
+	@Label("Configuration Plugin Invocation")
+	@Category(CATEGORY)
+	static class PluginInvocationEvent extends Event implements IReloadEvent {
+
+		@Label("File Path")
+		String path;
+
+		@Label("Configuration Id")
+		String id;
+
+		@Label("Plugin Class")
+		String pluginClass;
+	}
+
+	@Name(PREFIX + "Diff")
+	@Label("Configuration Diff")
+	@Category(CATEGORY)
+	static class DiffEvent extends Event implements IReloadEvent {
+
+		@Label("File Path")
+		String path;
+	}
+
+	@Name(PREFIX + "Clone")
+	@Label("Configuration Clone")
+	@Category(CATEGORY)
+	static class CloneEvent extends Event implements IReloadEvent {
+
+		@Label("Configuration Id")
+		String id;
+
+		@Label("Plugin Class")
+		String pluginClass;
+	}
+
+	@Name(PREFIX + "Dispatch")
+	@Label("Listener Notification")
+	@Category(CATEGORY)
+	static class DispatchEvent extends Event implements IReloadEvent {
+
+		@Label("Configuration Id")
+		String id;
+
+		@Label("Listener Class")
+		String listenerClass;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * @(#)ConfigurationManagerApiTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.annotation.Immutable;
+import com.google.code.jconfig.listener.IConfigurationChangeListener;
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.google.code.jconfig.model.ConfigurationSnapshot;
+import com.google.code.jconfig.reader.plugins.CacheConfigurationPlugin;
+import com.google.code.jconfig.reader.plugins.PropertyConfigurationPlugin;
+
+/*
+ * The manager can be configured once per JVM: all the tests share the same
+ * configuration, in a file of their own.
+ */
+public class ConfigurationManagerApiTest extends TestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	private static File configurationFile;
+	private static int version = 0;
+
+	@Override
+	protected void setUp() throws Exception {
+		synchronized (ConfigurationManagerApiTest.class) {
+			if(configurationFile == null) {
+				File directory = Files.createTempDirectory("jconfig").toFile();
+				directory.deleteOnExit();
+				configurationFile = new File(directory, "configuration.xml");
+				configurationFile.deleteOnExit();
+				writeConfiguration();
+				ConfigurationManager.configureAndWatch(new HashMap<String, IConfigurationChangeListener>(), configurationFile.getPath(), 100L);
+				assertNotNull(awaitVersion(version, TIMEOUT));
+			}
+		}
+	}
+
+	public void testGet() throws Exception {
+		BasicConfiguration first = ConfigurationManager.get("first", BasicConfiguration.class);
+		assertNotNull(first);
+		assertSame(first, ConfigurationManager.getSnapshot().get("first"));
+		assertSame(first, ConfigurationManager.get("first", Object.class));
+	}
+
+	public void testGetUnknownId() throws Exception {
+		assertNull(ConfigurationManager.get("unknown", BasicConfiguration.class));
+		assertNull(ConfigurationManager.get("unknown", String.class));
+		assertNull(ConfigurationManager.getSnapshot().get("unknown"));
+	}
+
+	public void testGetTypeMismatch() throws Exception {
+		try {
+			ConfigurationManager.get("first", String.class);
+			fail("Type mismatch not reported");
+		} catch (ClassCastException e) {
+			// expected
+		}
+	}
+
+	public void testSnapshotConsistentAcrossReload() throws Exception {
+		ConfigurationSnapshot before = ConfigurationManager.getSnapshot();
+		int versionBefore = Integer.parseInt(before.get("first", BasicConfiguration.class).getProperty("version"));
+
+		// the watch starts after the first snapshot is published: write again
+		// until the change is picked up
+		ConfigurationSnapshot after = null;
+		synchronized (ConfigurationManagerApiTest.class) {
+			version++;
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while( (after == null) && (System.currentTimeMillis() < deadline) ) {
+				writeConfiguration();
+				after = awaitVersion(version, 1000L);
+			}
+		}
+		assertNotNull("Configuration version " + version + " not loaded", after);
+
+		assertNotSame(before, after);
+		assertEquals(String.valueOf(versionBefore), before.get("first", BasicConfiguration.class).getProperty("version"));
+		assertEquals(String.valueOf(versionBefore), before.get("second", BasicConfiguration.class).getProperty("version"));
+		assertEquals(String.valueOf(versionBefore + 1), after.get("second", BasicConfiguration.class).getProperty("version"));
+	}
+
+	public void testImmutableConfigurationDeliveredUncloned() throws Exception {
+		Object delivered = deliver("immutable");
+		assertSame(ConfigurationManager.getSnapshot().get("immutable"), delivered);
+	}
+
+	public void testPropertiesDeliveredCloned() throws Exception {
+		Object delivered = deliver("first");
+		BasicConfiguration current = ConfigurationManager.get("first", BasicConfiguration.class);
+		assertNotSame(current, delivered);
+		assertEquals(current.getProperty("version"), ((BasicConfiguration) delivered).getProperty("version"));
+	}
+
+	public void testMutableConfigurationDeliveredCloned() throws Exception {
+		Object delivered = deliver("cache");
+		Object current = ConfigurationManager.getSnapshot().get("cache");
+		assertNotNull(current);
+		assertNotSame(current, delivered);
+		assertNotSame(((List<?>) current).get(0), ((List<?>) delivered).get(0));
+		assertEquals(current.toString(), delivered.toString());
+	}
+
+	private static Object deliver(String id) throws InterruptedException {
+		final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+		IConfigurationChangeListener listener = new IConfigurationChangeListener() {
+			public <T> void loadConfiguration(T configuration) {
+				received.add(configuration);
+			}
+		};
+		
+		ConfigurationManager.addListener(id, listener);
+		try {
+			Object delivered = received.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+			assertNotNull("Configuration " + id + " not delivered", delivered);
+			return delivered;
+		} finally {
+			ConfigurationManager.removeListener(id, listener);
+		}
+	}
+
+	private static ConfigurationSnapshot awaitVersion(int expected, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while(System.currentTimeMillis() < deadline) {
+			ConfigurationSnapshot snapshot = ConfigurationManager.getSnapshot();
+			BasicConfiguration first = snapshot.get("first", BasicConfiguration.class);
+			if( (first != null) && String.valueOf(expected).equals(first.getProperty("version")) ) {
+				return snapshot;
+			}
+			Thread.sleep(20L);
+		}
+		return null;
+	}
+
+	private static void writeConfiguration() throws IOException {
+		Writer writer = new FileWriter(configurationFile);
+		try {
+			writer.write("<configurations>" + configuration("first") + configuration("second")
+			             + "<configuration id=\"cache\" plugin=\"" + CacheConfigurationPlugin.class.getName() + "\">"
+			             + "<servers><server name=\"server 1\" port=\"1000\" /></servers></configuration>"
+			             + "<configuration id=\"immutable\" plugin=\"" + ImmutablePropertyPlugin.class.getName() + "\">"
+			             + "<property key=\"version\" value=\"0\" /></configuration>"
+			             + "</configurations>");
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static String configuration(String id) {
+		return "<configuration id=\"" + id + "\" plugin=\"" + PropertyConfigurationPlugin.class.getName() + "\">"
+		       + "<property key=\"version\" value=\"" + version + "\" /></configuration>";
+	}
+
+	@Immutable
+	public static class ImmutablePropertyPlugin extends PropertyConfigurationPlugin {
+
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * @(#)ConfigurationReaderFactoryTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.factory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.google.code.jconfig.model.ConfigurationInfo;
+import com.google.code.jconfig.reader.plugins.PropertyConfigurationPlugin;
+import com.google.code.jconfig.statistics.ReloadStatistics;
+import com.google.code.jconfig.statistics.StatisticsService;
+
+public class ConfigurationReaderFactoryTest extends TestCase {
+
+	private static final int THREADS = 8;
+	private static final int READS = 50;
+
+	private List<File> files = new ArrayList<File>();
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File aFile : files) {
+			aFile.delete();
+		}
+		ConfigurationReaderFactory.setReaderPoolSize(ConfigurationReaderFactory.DEFAULT_READER_POOL_SIZE);
+	}
+
+	public void testConcurrentReads() throws Exception {
+		ConfigurationReaderFactory.setReaderPoolSize(2);
+		ReloadStatistics statistics = StatisticsService.getReloadStatistics();
+		statistics.reset();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for(int i = 0; i < THREADS; i++) {
+				final String value = "value-" + i;
+				final String path = write(value);
+				results.add(executor.submit(new Callable<String>() {
+
+					public String call() throws Exception {
+						for(int j = 1; j < READS; j++) {
+							assertEquals(value, valueOf(ConfigurationReaderFactory.read(path)));
+						}
+						return valueOf(ConfigurationReaderFactory.read(path));
+					}
+				}));
+			}
+
+			for(int i = 0; i < THREADS; i++) {
+				assertEquals("value-" + i, results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(THREADS * READS, statistics.getReaderPoolHits() + statistics.getReaderPoolMisses());
+		assertTrue(statistics.getReaderPoolHits() > 0);
+	}
+
+	private String write(String value) throws Exception {
+		File file = File.createTempFile("jconfig", ".xml");
+		files.add(file);
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write("<configurations><configuration id=\"test\" plugin=\"" + PropertyConfigurationPlugin.class.getName() + "\">"
+			             + "<property key=\"value\" value=\"" + value + "\" /></configuration></configurations>");
+		} finally {
+			writer.close();
+		}
+		return file.getPath();
+	}
+
+	private static String valueOf(ConfigurationInfo configurationInfo) {
+		return ((BasicConfiguration)configurationInfo.getConfigurationMap().get("test")).getProperty("value");
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * @(#)ReloadCoalescerTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class ReloadCoalescerTest extends TestCase {
+
+	private AtomicInteger reloads;
+	private ReloadCoalescer coalescer;
+
+	@Override
+	protected void setUp() throws Exception {
+		reloads = new AtomicInteger();
+		coalescer = new ReloadCoalescer(new Runnable() {
+			public void run() {
+				reloads.incrementAndGet();
+			}
+		}, 100L);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		coalescer.shutdown();
+	}
+
+	public void testBurstProducesSingleReload() throws InterruptedException {
+		for(int i = 0; i < 20; i++) {
+			coalescer.fire();
+			Thread.sleep(5L);
+		}
+
+		Thread.sleep(400L);
+		assertEquals(1, reloads.get());
+	}
+
+	public void testSeparateBurstsProduceSeparateReloads() throws InterruptedException {
+		coalescer.fire();
+		Thread.sleep(400L);
+		coalescer.fire();
+		coalescer.fire();
+		Thread.sleep(400L);
+		assertEquals(2, reloads.get());
+	}
+
+	public void testShutdownDiscardsPendingReload() throws InterruptedException {
+		coalescer.fire();
+		coalescer.shutdown();
+		Thread.sleep(300L);
+		assertEquals(0, reloads.get());
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * @(#)WatchDogTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.helper;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.ConfigurationManager;
+
+public class WatchDogTest extends TestCase {
+
+	private File directory;
+	private File watched;
+	private Semaphore reloads;
+	private ReloadCoalescer coalescer;
+	private IWatchDog watchDog;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("jconfig", "");
+		directory.delete();
+		directory.mkdirs();
+		watched = new File(directory, "configuration.xml");
+		write(watched, "<configurations />");
+		reloads = new Semaphore(0);
+		coalescer = new ReloadCoalescer(new Runnable() {
+			public void run() {
+				reloads.release();
+			}
+		}, 50L);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if(watchDog != null) {
+			watchDog.stopWatching();
+		}
+		coalescer.shutdown();
+		File[] children = directory.listFiles();
+		if(children != null) {
+			for (File aChild : children) {
+				aChild.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	public void testNativeModification() throws Exception {
+		start(new NativeWatchDog(coalescer, Collections.singletonList(watched.getPath())));
+		assertModificationDetected();
+	}
+
+	public void testNativeReplacementByRename() throws Exception {
+		start(new NativeWatchDog(coalescer, Collections.singletonList(watched.getPath())));
+		assertReplacementDetected();
+	}
+
+	public void testNativeIgnoresOtherFiles() throws Exception {
+		start(new NativeWatchDog(coalescer, Collections.singletonList(watched.getPath())));
+		write(new File(directory, "other.xml"), "<other />");
+		assertFalse(reloads.tryAcquire(500, TimeUnit.MILLISECONDS));
+	}
+
+	public void testPollingModification() throws Exception {
+		start(new WatchDog(coalescer, Collections.singletonList(watched.getPath()), 50L));
+		assertModificationDetected();
+	}
+
+	public void testPollingReplacementByRename() throws Exception {
+		start(new WatchDog(coalescer, Collections.singletonList(watched.getPath()), 50L));
+		assertReplacementDetected();
+	}
+
+	public void testOwnedCoalescerReleased() throws Exception {
+		WatchDog legacyWatchDog = new WatchDog((ConfigurationManager)null, Collections.singletonList(watched.getPath()), 50L);
+		start(legacyWatchDog);
+		assertFalse(legacyWatchDog.getReloadCoalescer().isShutdown());
+		legacyWatchDog.stopWatching();
+		assertTrue(legacyWatchDog.getReloadCoalescer().isShutdown());
+	}
+
+	public void testSharedCoalescerKept() throws Exception {
+		start(new WatchDog(coalescer, Collections.singletonList(watched.getPath()), 50L));
+		watchDog.stopWatching();
+		Thread.sleep(200L);
+		assertFalse(coalescer.isShutdown());
+	}
+
+	private void assertModificationDetected() throws Exception {
+		Thread.sleep(100L);
+		write(watched, "<configurations></configurations>");
+		assertTrue("Modification not detected", reloads.tryAcquire(5, TimeUnit.SECONDS));
+	}
+
+	/*
+	 * As an editor saves: a new file written aside, then renamed over the
+	 * watched one.
+	 */
+	private void assertReplacementDetected() throws Exception {
+		Thread.sleep(100L);
+		File replacement = new File(directory, "configuration.xml.tmp");
+		write(replacement, "<configurations></configurations>");
+		Files.move(replacement.toPath(), watched.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		assertTrue("Replacement not detected", reloads.tryAcquire(5, TimeUnit.SECONDS));
+	}
+
+	private void start(IWatchDog watchDog) {
+		this.watchDog = watchDog;
+		Thread thread = new Thread(watchDog);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static void write(File file, String content) throws IOException {
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+}
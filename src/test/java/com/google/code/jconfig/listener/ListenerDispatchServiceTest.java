@@ -0,0 +1,148 @@
+/*
+ * @(#)ListenerDispatchServiceTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.listener;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class ListenerDispatchServiceTest extends TestCase {
+
+	public void testPendingNotificationIsSuperseded() throws Exception {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(2);
+		final List<Integer> received = new CopyOnWriteArrayList<Integer>();
+		IConfigurationChangeListener listener = new IConfigurationChangeListener() {
+			public <T> void loadConfiguration(T configuration) {
+				received.add((Integer)configuration);
+				if( ((Integer)configuration).intValue() == 1 ) {
+					running.countDown();
+					await(release);
+				}
+				done.countDown();
+			}
+		};
+
+		long superseded = ListenerDispatchService.getStatistics().getSupersededCount();
+		ListenerDispatchService.dispatch("id", listener, notification(listener, 1));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		ListenerDispatchService.dispatch("id", listener, notification(listener, 2));
+		ListenerDispatchService.dispatch("id", listener, notification(listener, 3));
+		release.countDown();
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(2, received.size());
+		assertEquals(Integer.valueOf(1), received.get(0));
+		assertEquals(Integer.valueOf(3), received.get(1));
+		assertEquals(superseded + 1, ListenerDispatchService.getStatistics().getSupersededCount());
+	}
+
+	public void testDispatchWaitsWhenPoolAndQueueAreFull() throws Exception {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(3);
+		ListenerDispatchService.setPoolSize(1);
+		ListenerDispatchService.setQueueCapacity(1);
+		ListenerDispatchService.reset();
+		try {
+			final IConfigurationChangeListener[] listeners = new IConfigurationChangeListener[3];
+			for(int i = 0; i < listeners.length; i++) {
+				listeners[i] = new IConfigurationChangeListener() {
+					public <T> void loadConfiguration(T configuration) {
+						running.countDown();
+						await(release);
+						done.countDown();
+					}
+				};
+			}
+
+			// one notification running, one waiting in the queue
+			ListenerDispatchService.dispatch("id", listeners[0], notification(listeners[0], 1));
+			assertTrue(running.await(5, TimeUnit.SECONDS));
+			ListenerDispatchService.dispatch("id", listeners[1], notification(listeners[1], 1));
+
+			Thread dispatcher = new Thread() {
+				public void run() {
+					ListenerDispatchService.dispatch("id", listeners[2], notification(listeners[2], 1));
+				}
+			};
+			dispatcher.start();
+			dispatcher.join(300);
+			assertTrue("Dispatch didn't wait for a free slot", dispatcher.isAlive());
+
+			release.countDown();
+			dispatcher.join(5000);
+			assertFalse(dispatcher.isAlive());
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			ListenerDispatchService.setPoolSize(ListenerDispatchService.DEFAULT_POOL_SIZE);
+			ListenerDispatchService.setQueueCapacity(ListenerDispatchService.DEFAULT_QUEUE_CAPACITY);
+			ListenerDispatchService.reset();
+		}
+	}
+
+	public void testUnregisteredListenerReleased() throws Exception {
+		final CountDownLatch done = new CountDownLatch(1);
+		IConfigurationChangeListener listener = new IConfigurationChangeListener() {
+			public <T> void loadConfiguration(T configuration) {
+				done.countDown();
+			}
+		};
+		ListenerRegistry registry = new ListenerRegistry();
+		registry.register("id", listener);
+		for (IConfigurationChangeListener aListener : registry.getListeners("id")) {
+			ListenerDispatchService.dispatch("id", aListener, notification(aListener, 1));
+		}
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		assertTrue(registry.unregister("id", listener));
+		WeakReference<IConfigurationChangeListener> reference = new WeakReference<IConfigurationChangeListener>(listener);
+		listener = null;
+		long deadline = System.currentTimeMillis() + 5000;
+		while( (reference.get() != null) && (System.currentTimeMillis() < deadline) ) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull("Listener still held", reference.get());
+	}
+
+	private static Runnable notification(final IConfigurationChangeListener listener, final int version) {
+		return new Runnable() {
+			public void run() {
+				listener.loadConfiguration(Integer.valueOf(version));
+			}
+		};
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * @(#)ListenerRegistryTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.listener;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ListenerRegistryTest extends TestCase {
+
+	private ListenerRegistry registry;
+	private IConfigurationChangeListener first;
+	private IConfigurationChangeListener second;
+
+	@Override
+	protected void setUp() throws Exception {
+		registry = new ListenerRegistry();
+		first = new NoOpListener();
+		second = new NoOpListener();
+	}
+
+	public void testManyListenersForSameId() {
+		registry.register("db", first);
+		registry.register("db", second);
+		registry.register("db", first);
+
+		List<IConfigurationChangeListener> listeners = registry.getListeners("db");
+		assertEquals(2, listeners.size());
+		assertSame(first, listeners.get(0));
+		assertSame(second, listeners.get(1));
+		assertTrue(registry.getListeners("cache").isEmpty());
+	}
+
+	public void testPrefixSubscription() {
+		registry.register("db.*", first);
+		registry.register(ListenerRegistry.WILDCARD, second);
+		registry.register("db.primary", second);
+
+		List<IConfigurationChangeListener> listeners = registry.getListeners("db.primary");
+		assertEquals(2, listeners.size());
+		assertSame(second, listeners.get(0));
+		assertSame(first, listeners.get(1));
+
+		listeners = registry.getListeners("cache");
+		assertEquals(1, listeners.size());
+		assertSame(second, listeners.get(0));
+	}
+
+	public void testUnregister() {
+		registry.register("db", first);
+		registry.register("db.*", second);
+
+		assertTrue(registry.unregister("db", first));
+		assertFalse(registry.unregister("db", first));
+		assertTrue(registry.unregister("db.*", second));
+		assertTrue(registry.getListeners("db").isEmpty());
+		assertTrue(registry.getListeners("db.primary").isEmpty());
+	}
+
+	private static class NoOpListener implements IConfigurationChangeListener {
+
+		public <T> void loadConfiguration(T configuration) { }
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * @(#)BasicConfigurationTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class BasicConfigurationTest extends TestCase {
+
+	private BasicConfiguration configuration;
+
+	@Override
+	protected void setUp() throws Exception {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("int", " 42 ");
+		properties.put("long", "10000000000");
+		properties.put("double", "0.75");
+		properties.put("boolean", "TRUE");
+		properties.put("timeout", "30s");
+		properties.put("delay", "250");
+		properties.put("buffer", "64k");
+		properties.put("heap", "2 GB");
+		properties.put("hosts", "a, b,,c ");
+		properties.put("text", "hello");
+		configuration = new BasicConfiguration(properties);
+	}
+
+	public void testNumbers() {
+		assertEquals(42, configuration.getInt("int"));
+		assertEquals(42L, configuration.getLong("int"));
+		assertEquals(10000000000L, configuration.getLong("long"));
+		assertEquals(-1, configuration.getInt("long", -1));
+		assertEquals(0.75, configuration.getDouble("double"), 0.0);
+		assertEquals(7, configuration.getInt("missing", 7));
+		assertEquals(7, configuration.getInt("text", 7));
+	}
+
+	public void testNumberNotations() {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("negative", "-12");
+		properties.put("exponent", "1.5e3");
+		properties.put("fraction", ".5");
+		properties.put("overflow", "99999999999999999999");
+		properties.put("days", "1d");
+		properties.put("infinity", "Infinity");
+		properties.put("hex", "0x10");
+		BasicConfiguration numbers = new BasicConfiguration(properties);
+
+		assertEquals(-12, numbers.getInt("negative"));
+		assertEquals(-12.0, numbers.getDouble("negative"), 0.0);
+		assertEquals(1500.0, numbers.getDouble("exponent"), 0.0);
+		assertEquals(-1L, numbers.getLong("exponent", -1L));
+		assertEquals(0.5, numbers.getDouble("fraction"), 0.0);
+		assertEquals(-1L, numbers.getLong("overflow", -1L));
+		assertEquals(1e20, numbers.getDouble("overflow"), 0.0);
+		assertEquals(-1.0, numbers.getDouble("days", -1.0), 0.0);
+		assertEquals(1L, numbers.getDuration("days", TimeUnit.DAYS));
+		assertEquals(-1.0, numbers.getDouble("infinity", -1.0), 0.0);
+		assertEquals(-1L, numbers.getLong("hex", -1L));
+	}
+
+	public void testConversionsMadeWhenBuilt() {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("int", "42");
+		properties.put("text", "hello");
+		PropertyTable table = new PropertyTable(properties);
+
+		PropertyValue value = table.getConverted("int");
+		assertEquals(42L, value.longValue);
+		assertSame(value, table.getConverted("int"));
+		assertNull(table.getConverted("text"));
+		assertNull(table.getConverted("missing"));
+	}
+
+	public void testBooleans() {
+		assertTrue(configuration.getBoolean("boolean"));
+		assertFalse(configuration.getBoolean("text", false));
+	}
+
+	public void testDurationsAndSizes() {
+		assertEquals(30000L, configuration.getDuration("timeout", TimeUnit.MILLISECONDS));
+		assertEquals(30L, configuration.getDuration("timeout", TimeUnit.SECONDS));
+		assertEquals(250L, configuration.getDuration("delay", TimeUnit.MILLISECONDS));
+		assertEquals(-1L, configuration.getDuration("text", TimeUnit.SECONDS, -1L));
+		assertEquals(64L * 1024, configuration.getBytes("buffer"));
+		assertEquals(2L * 1024 * 1024 * 1024, configuration.getBytes("heap"));
+		assertEquals(-1L, configuration.getBytes("timeout", -1L));
+	}
+
+	public void testLists() {
+		assertEquals(Arrays.asList("a", "b", "c"), configuration.getList("hosts"));
+		assertEquals(Arrays.asList("hello"), configuration.getList("text"));
+		assertTrue(configuration.getList("missing").isEmpty());
+	}
+
+	public void testRequiredValueErrors() {
+		try {
+			configuration.getInt("missing");
+			fail("Missing property not reported");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Property <missing> not found.", e.getMessage());
+		}
+		try {
+			configuration.getBoolean("int");
+			fail("Wrong type not reported");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Property <int> is not a boolean:  42 ", e.getMessage());
+		}
+		try {
+			configuration.getLong("text");
+			fail("Plain string not reported");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Property <text> is not a long: hello", e.getMessage());
+		}
+	}
+
+	public void testLargeTable() {
+		Map<String, String> properties = new HashMap<String, String>();
+		for (int i = 0; i < 100000; i++) {
+			properties.put("route." + i, ( (i % 2 == 0)? "host-" + i : String.valueOf(i) ));
+		}
+		properties.put(null, "no key");
+		BasicConfiguration large = new BasicConfiguration(properties);
+
+		for (int i = 0; i < 100000; i++) {
+			assertEquals(properties.get("route." + i), large.getProperty("route." + i));
+		}
+		assertEquals(99999L, large.getLong("route.99999"));
+		assertEquals(-1L, large.getLong("route.2", -1L));
+		assertNull(large.getProperty("route.100000"));
+		assertEquals("no key", large.getProperty(null));
+		assertEquals(properties, large.getProperties());
+		assertEquals(properties.hashCode(), large.getProperties().hashCode());
+	}
+
+	public void testPropertiesView() {
+		Map<String, String> properties = configuration.getProperties();
+		assertEquals(10, properties.size());
+		assertEquals("hello", properties.get("text"));
+		assertTrue(properties.containsKey("hosts"));
+		assertFalse(properties.containsKey("missing"));
+		assertNull(properties.get(Integer.valueOf(1)));
+		try {
+			properties.put("text", "changed");
+			fail("Properties modified");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertNull(new BasicConfiguration(null).getProperties());
+	}
+
+	public void testPrefixQueries() {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("db.primary.url", "jdbc:primary");
+		properties.put("db.primary.pool.max", "20");
+		properties.put("db.primary.pool.min", "2");
+		properties.put("db.primaryBackup.url", "jdbc:backup");
+		properties.put("db.secondary.url", "jdbc:secondary");
+		properties.put("dbx", "other");
+		properties.put(null, "no key");
+		BasicConfiguration root = new BasicConfiguration(properties);
+
+		Map<String, String> primary = root.getProperties("db.primary.");
+		assertEquals(Arrays.asList("db.primary.pool.max", "db.primary.pool.min", "db.primary.url"), new ArrayList<String>(primary.keySet()));
+		assertEquals("20", primary.get("db.primary.pool.max"));
+		assertNull(primary.get("db.secondary.url"));
+		assertEquals(5, root.getProperties("db.").size());
+		assertTrue(root.getProperties("cache.").isEmpty());
+		assertEquals(6, root.getProperties("").size());
+
+		BasicConfiguration subset = root.subset("db.primary");
+		assertEquals("jdbc:primary", subset.getProperty("url"));
+		assertEquals(20, subset.getInt("pool.max"));
+		assertNull(subset.getProperty("db.primary.url"));
+		assertNull(subset.getProperty(null));
+		assertEquals(Arrays.asList("pool.max", "pool.min", "url"), new ArrayList<String>(subset.getProperties().keySet()));
+		assertEquals("jdbc:primary", subset.getProperties().get("url"));
+		assertFalse(subset.getProperties().containsKey("db.primary.url"));
+		assertEquals(2, subset.getProperties("pool.").size());
+		assertEquals("2", subset.getProperties("pool.").get("pool.min"));
+
+		BasicConfiguration pool = root.subset("db").subset("primary.pool");
+		assertEquals(2, pool.getInt("min"));
+		assertEquals(2, pool.getProperties().size());
+		try {
+			pool.getInt("url");
+			fail("Property outside the subset found");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Property <url> not found.", e.getMessage());
+		}
+		assertTrue(root.subset("cache").getProperties().isEmpty());
+	}
+
+	public void testSubsetSharesValues() {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("db.hosts", "a, b");
+		properties.put("db.url", "jdbc:primary");
+		properties.put("dbx", "other");
+		BasicConfiguration root = new BasicConfiguration(properties);
+
+		BasicConfiguration subset = root.subset("db");
+		assertSame(root.getProperty("db.url"), subset.getProperty("url"));
+		assertSame(root.getList("db.hosts"), subset.getList("hosts"));
+		assertEquals(2, subset.getProperties().size());
+		assertNull(new BasicConfiguration(null).subset("db").getProperties());
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * @(#)ConfigurationReaderTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.exception.ImportCycleException;
+import com.google.code.jconfig.factory.ConfigurationReaderFactory;
+import com.google.code.jconfig.model.BasicConfiguration;
+import com.google.code.jconfig.model.ConfigurationInfo;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+import com.google.code.jconfig.reader.plugins.IConfigurationPlugin;
+import com.google.code.jconfig.reader.plugins.PropertyConfigurationPlugin;
+import com.google.code.jconfig.statistics.LatencyHistogram;
+import com.google.code.jconfig.statistics.StatisticsService;
+
+public class ConfigurationReaderTest extends TestCase {
+
+	private static final int IMPORTS = 8;
+
+	private File directory;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("jconfig", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(directory);
+	}
+
+	public void testImportsMergedInDocumentOrder() throws Exception {
+		StringBuilder root = new StringBuilder("<configurations>");
+		root.append(configuration("shared", "root-before"));
+		for(int i = 0; i < IMPORTS; i++) {
+			root.append("<import file=\"import-" + i + ".xml\" />");
+			write("import-" + i + ".xml", "<configurations>" + configuration("shared", "import-" + i)
+			      + configuration("imported", "import-" + i) + configuration("id-" + i, "import-" + i) + "</configurations>");
+		}
+		root.append(configuration("last", "root-after"));
+		root.append("</configurations>");
+		String rootPath = write("root.xml", root.toString());
+
+		ConfigurationInfo configurationInfo = new ConfigurationReader().readConfiguration(rootPath);
+		assertEquals("import-" + (IMPORTS - 1), valueOf(configurationInfo, "shared"));
+		assertEquals("import-" + (IMPORTS - 1), valueOf(configurationInfo, "imported"));
+		assertEquals("root-after", valueOf(configurationInfo, "last"));
+		for(int i = 0; i < IMPORTS; i++) {
+			assertEquals("import-" + i, valueOf(configurationInfo, "id-" + i));
+			assertEquals(new File(directory, "import-" + i + ".xml").getPath(), configurationInfo.getConfFileList().get(i + 1));
+		}
+		assertEquals(rootPath, configurationInfo.getConfFileList().get(0));
+	}
+
+	public void testSharedImportParsedOnce() throws Exception {
+		write("common.xml", "<configurations>" + configuration("common", "common") + "</configurations>");
+		write("a.xml", "<configurations><import file=\"common.xml\" />" + configuration("a", "a") + "</configurations>");
+		write("b.xml", "<configurations><import file=\"./common.xml\" />" + configuration("b", "b") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"a.xml\" /><import file=\"b.xml\" />"
+		                        + "<import file=\"common.xml\" /></configurations>");
+
+		StatisticsService.getReloadStatistics().reset();
+		ConfigurationInfo configurationInfo = new ConfigurationReader().readConfiguration(rootPath);
+		assertEquals("common", valueOf(configurationInfo, "common"));
+		assertEquals("a", valueOf(configurationInfo, "a"));
+		assertEquals("b", valueOf(configurationInfo, "b"));
+
+		long commonParses = 0;
+		for (Map.Entry<String, LatencyHistogram> anEntry : StatisticsService.getReloadStatistics().getFileParseTimes().entrySet()) {
+			if( anEntry.getKey().endsWith("common.xml") ) {
+				commonParses += anEntry.getValue().getCount();
+			}
+		}
+		assertEquals(1, commonParses);
+	}
+
+	public void testImportCycleReported() throws Exception {
+		write("a.xml", "<configurations><import file=\"b.xml\" /></configurations>");
+		write("b.xml", "<configurations>" + configuration("b", "b") + "<import file=\"a.xml\" /></configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"a.xml\" /></configurations>");
+
+		try {
+			new ConfigurationReader().readConfiguration(rootPath);
+			fail("Import cycle not detected");
+		} catch (ImportCycleException e) {
+			String a = new File(directory, "a.xml").getCanonicalPath();
+			String b = new File(directory, "b.xml").getCanonicalPath();
+			assertEquals(Arrays.asList(b, a, b), e.getCyclePath());
+			assertTrue(e.getFileParsedList().contains(rootPath));
+		}
+	}
+
+	public void testSelfImportReported() throws Exception {
+		String rootPath = write("root.xml", "<configurations><import file=\"root.xml\" /></configurations>");
+
+		try {
+			new ConfigurationReader().readConfiguration(rootPath);
+			fail("Import cycle not detected");
+		} catch (ImportCycleException e) {
+			String root = new File(rootPath).getCanonicalPath();
+			assertEquals(Arrays.asList(root, root), e.getCyclePath());
+		}
+	}
+
+	public void testReaderReusedAfterFailure() throws Exception {
+		String brokenPath = write("broken.xml", "<configurations>" + configuration("broken", "broken"));
+		write("sub/inner.xml", "<configurations>" + configuration("inner", "inner") + "</configurations>");
+		String rootPath = write("sub/root.xml", "<configurations><import file=\"inner.xml\" />" + configuration("root", "root") + "</configurations>");
+
+		ConfigurationReader reader = new ConfigurationReader();
+		try {
+			reader.readConfiguration(brokenPath);
+			fail("Parsing error not reported");
+		} catch (ConfigurationParsingException e) {
+			assertTrue(e.getFileParsedList().contains(brokenPath));
+		}
+
+		ConfigurationInfo configurationInfo = reader.readConfiguration(rootPath);
+		assertEquals("inner", valueOf(configurationInfo, "inner"));
+		assertEquals("root", valueOf(configurationInfo, "root"));
+		assertNull(configurationInfo.getConfigurationMap().get("broken"));
+	}
+
+	public void testSplitTextRead() throws Exception {
+		String rootPath = write("root.xml", "<configurations><configuration id=\"text\" plugin=\"" + TextPlugin.class.getName() + "\">\n"
+		                        + "  <text>a &amp; b &lt; c</text>\n  <blank>  \n  </blank>\n</configuration></configurations>");
+
+		ConfigurationInfo configurationInfo = new ConfigurationReader().readConfiguration(rootPath);
+		assertEquals("[null, a & b < c,   \n  ]", configurationInfo.getConfigurationMap().get("text"));
+	}
+
+	public void testUnchangedImportReused() throws Exception {
+		String childPath = write("child.xml", "<configurations>" + configuration("child", "a") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"child.xml\" />" + configuration("root", "root") + "</configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationInfo first = ConfigurationReaderFactory.read(rootPath, graph);
+		FileNode childNode = graph.getUpToDateNode(childPath);
+		write("root.xml", "<configurations><import file=\"child.xml\" />" + configuration("root", "changed") + "</configurations>");
+		ConfigurationInfo second = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertEquals("changed", valueOf(second, "root"));
+		assertSame(childNode, graph.getUpToDateNode(childPath));
+		assertSame(first.getConfigurationMap().get("child"), second.getConfigurationMap().get("child"));
+	}
+
+	public void testChangedImportParsedAgain() throws Exception {
+		String childPath = write("child.xml", "<configurations>" + configuration("child", "a") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"child.xml\" /></configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationReaderFactory.read(rootPath, graph);
+		FileNode childNode = graph.getUpToDateNode(childPath);
+		write("child.xml", "<configurations>" + configuration("child", "longer") + "</configurations>");
+		ConfigurationInfo configurationInfo = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertEquals("longer", valueOf(configurationInfo, "child"));
+		assertNotSame(childNode, graph.getUpToDateNode(childPath));
+	}
+
+	public void testSameDateAndLengthEditDetected() throws Exception {
+		String childPath = write("child.xml", "<configurations>" + configuration("child", "a") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"child.xml\" /></configurations>");
+		File childFile = new File(childPath);
+		long lastModified = childFile.lastModified();
+		long length = childFile.length();
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationReaderFactory.read(rootPath, graph);
+		// an edit within the granularity of the modify date
+		write("child.xml", "<configurations>" + configuration("child", "b") + "</configurations>");
+		childFile.setLastModified(lastModified);
+		assertEquals(lastModified, childFile.lastModified());
+		assertEquals(length, childFile.length());
+		ConfigurationInfo configurationInfo = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertEquals("b", valueOf(configurationInfo, "child"));
+	}
+
+	public void testBrokenImportOfUnchangedFileReportsAllFiles() throws Exception {
+		String brokenPath = write("broken.xml", "<configurations>" + configuration("broken", "a") + "</configurations>");
+		String otherPath = write("other.xml", "<configurations>" + configuration("other", "a") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations><import file=\"broken.xml\" /><import file=\"other.xml\" /></configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationReaderFactory.read(rootPath, graph);
+		write("broken.xml", "<configurations>" + configuration("broken", "b"));
+		try {
+			ConfigurationReaderFactory.read(rootPath, graph);
+			fail("Parsing error not reported");
+		} catch (ConfigurationParsingException e) {
+			assertTrue(e.getFileParsedList().contains(rootPath));
+			assertTrue(e.getFileParsedList().contains(brokenPath));
+			assertTrue(e.getFileParsedList().contains(otherPath));
+		}
+	}
+
+	public void testUnchangedFragmentReused() throws Exception {
+		String rootPath = write("root.xml", "<configurations>" + configuration("a", "a") + configuration("b", "b") + "</configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationInfo first = ConfigurationReaderFactory.read(rootPath, graph);
+		write("root.xml", "<configurations>" + configuration("a", "a") + configuration("b", "changed") + "</configurations>");
+		ConfigurationInfo second = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertEquals("changed", valueOf(second, "b"));
+		assertSame(first.getConfigurationMap().get("a"), second.getConfigurationMap().get("a"));
+	}
+
+	public void testChangedFragmentBuiltAgain() throws Exception {
+		String rootPath = write("root.xml", "<configurations>" + configuration("a", "a") + "</configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationInfo first = ConfigurationReaderFactory.read(rootPath, graph);
+		write("root.xml", "<configurations>" + configuration("a", "changed") + "</configurations>");
+		ConfigurationInfo second = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertNotSame(first.getConfigurationMap().get("a"), second.getConfigurationMap().get("a"));
+		assertEquals("a", valueOf(first, "a"));
+		assertEquals("changed", valueOf(second, "a"));
+	}
+
+	public void testSwappedPluginBuiltAgain() throws Exception {
+		String fragment = "<text>a</text></configuration>";
+		String rootPath = write("root.xml", "<configurations><configuration id=\"a\" plugin=\"" + PropertyConfigurationPlugin.class.getName() + "\">"
+		                        + fragment + "</configurations>");
+		DependencyGraph graph = new DependencyGraph();
+
+		ConfigurationInfo first = ConfigurationReaderFactory.read(rootPath, graph);
+		assertTrue(first.getConfigurationMap().get("a") instanceof BasicConfiguration);
+		write("root.xml", "<configurations><configuration id=\"a\" plugin=\"" + TextPlugin.class.getName() + "\">"
+		      + fragment + "</configurations>");
+		ConfigurationInfo second = ConfigurationReaderFactory.read(rootPath, graph);
+
+		assertEquals("[null, a]", second.getConfigurationMap().get("a"));
+	}
+
+	public void testSnapshotRestoredInDocumentOrder() throws Exception {
+		write("child.xml", "<configurations>" + configuration("before", "child") + configuration("after", "child") + "</configurations>");
+		String rootPath = write("root.xml", "<configurations>" + configuration("before", "root") + "<import file=\"child.xml\" />"
+		                        + configuration("after", "root") + "</configurations>");
+		DependencyGraph graph = new DependencyGraph();
+		graph.setRetainingFragments(true);
+		ConfigurationInfo read = ConfigurationReaderFactory.read(rootPath, graph);
+		File snapshot = new File(directory, "configuration.snapshot");
+		assertTrue(ConfigurationReaderFactory.writeSnapshot(snapshot, rootPath, read.getConfFileList(), graph));
+
+		ConfigurationInfo restored = ConfigurationReaderFactory.readSnapshot(snapshot, rootPath, new DependencyGraph());
+		assertEquals("child", valueOf(read, "before"));
+		assertEquals("root", valueOf(read, "after"));
+		assertEquals("child", valueOf(restored, "before"));
+		assertEquals("root", valueOf(restored, "after"));
+		assertEquals(read.getConfFileList(), restored.getConfFileList());
+	}
+
+	private String write(String name, String content) throws IOException {
+		File file = new File(directory, name);
+		file.getParentFile().mkdirs();
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return file.getPath();
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if(children != null) {
+			for (File aChild : children) {
+				delete(aChild);
+			}
+		}
+		file.delete();
+	}
+
+	private static String configuration(String id, String value) {
+		return "<configuration id=\"" + id + "\" plugin=\"" + PropertyConfigurationPlugin.class.getName() + "\">"
+		       + "<property key=\"value\" value=\"" + value + "\" /></configuration>";
+	}
+
+	private static String valueOf(ConfigurationInfo configurationInfo, String id) {
+		return ((BasicConfiguration)configurationInfo.getConfigurationMap().get(id)).getProperty("value");
+	}
+
+	public static class TextPlugin implements IConfigurationPlugin<String> {
+
+		public String readConfiguration(IHierarchicalReader reader) {
+			List<String> values = new ArrayList<String>();
+			values.add(reader.getValue());
+			for (IHierarchicalReader child : reader.getChildren()) {
+				values.add(child.getValue());
+			}
+			return values.toString();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * @(#)FingerprintTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import junit.framework.TestCase;
+
+public class FingerprintTest extends TestCase {
+
+	public void testSplitTextHasSameFingerprint() {
+		char[] text = "some text value".toCharArray();
+
+		Fingerprint whole = new Fingerprint();
+		whole.addMarker(Fingerprint.START_ELEMENT).add("node").add(text, 0, text.length);
+
+		Fingerprint split = new Fingerprint();
+		split.addMarker(Fingerprint.START_ELEMENT).add("node").add(text, 0, 4).add(text, 4, text.length - 4);
+
+		assertEquals(whole.getValue(), split.getValue());
+	}
+
+	public void testDifferentStructuresHaveDifferentFingerprints() {
+		Fingerprint first = new Fingerprint();
+		first.addMarker(Fingerprint.ATTRIBUTE).add("ab").add("c");
+
+		Fingerprint second = new Fingerprint();
+		second.addMarker(Fingerprint.ATTRIBUTE).add("a").add("bc");
+
+		assertFalse(first.getValue() == second.getValue());
+	}
+
+	public void testResetStartsNewFingerprint() {
+		Fingerprint fingerprint = new Fingerprint();
+		long empty = fingerprint.getValue();
+		fingerprint.add("value");
+		assertFalse(empty == fingerprint.getValue());
+
+		fingerprint.reset();
+		assertEquals(empty, fingerprint.getValue());
+	}
+}
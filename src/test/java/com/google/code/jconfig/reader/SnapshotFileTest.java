@@ -0,0 +1,117 @@
+/*
+ * @(#)SnapshotFileTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReader;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+
+public class SnapshotFileTest extends TestCase {
+
+	private File snapshot;
+
+	@Override
+	protected void setUp() throws Exception {
+		snapshot = File.createTempFile("jconfig", ".snapshot");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		snapshot.delete();
+	}
+
+	public void testWriteAndRead() throws Exception {
+		HierarchicalReader property = new HierarchicalReader();
+		property.setNodeName("property");
+		property.addAttribute("key", "a");
+		property.setValue("text");
+		HierarchicalReader configuration = new HierarchicalReader();
+		configuration.setNodeName("configuration");
+		configuration.addAttribute("id", "general");
+		configuration.addChild(property);
+
+		FileNode root = new FileNode("/conf/root.xml", 1L, 2L);
+		root.setChecksum(42L);
+		root.addImport("/conf/inner.xml");
+		root.addConfiguration("general", "a.Plugin", new Object(), 7L, configuration);
+		FileNode inner = new FileNode("/conf/inner.xml", 1L, 2L);
+		inner.setChecksum(43L);
+
+		SnapshotFile.write(snapshot, "/conf/root.xml", Arrays.asList(root, inner));
+		assertNull(SnapshotFile.read(snapshot, "/conf/other.xml"));
+
+		List<FileNode> nodes = SnapshotFile.read(snapshot, "/conf/root.xml");
+		assertEquals(2, nodes.size());
+		FileNode readRoot = nodes.get(0);
+		assertEquals("/conf/root.xml", readRoot.getPath());
+		assertEquals(42L, readRoot.getChecksum());
+		assertFalse(readRoot.isUpToDate());
+		assertEquals(2, readRoot.getEntries().size());
+		assertEquals("/conf/inner.xml", readRoot.getEntries().get(0).getImportedPath());
+
+		FileNode.Entry entry = readRoot.getEntries().get(1);
+		assertEquals("general", entry.getId());
+		assertEquals("a.Plugin", entry.getPluginClass());
+		assertEquals(7L, entry.getFingerprint());
+		assertNull(entry.getConfiguration());
+
+		IHierarchicalReader readConfiguration = entry.getNode();
+		assertEquals("configuration", readConfiguration.getNodeName());
+		assertNull(readConfiguration.getValue());
+		assertEquals("general", readConfiguration.getAttributeValue("id"));
+		IHierarchicalReader readProperty = readConfiguration.getChildren().get(0);
+		assertEquals("a", readProperty.getAttributeValue("key"));
+		assertEquals("text", readProperty.getValue());
+		assertFalse(readProperty.hasChildren());
+
+		assertEquals(43L, nodes.get(1).getChecksum());
+		assertTrue(nodes.get(1).getEntries().isEmpty());
+	}
+
+	public void testTruncatedSnapshot() throws Exception {
+		FileNode root = new FileNode("/conf/root.xml", 1L, 2L);
+		root.addImport("/conf/inner.xml");
+		SnapshotFile.write(snapshot, "/conf/root.xml", Arrays.asList(root));
+
+		RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+		try {
+			file.setLength(file.length() - 3);
+		} finally {
+			file.close();
+		}
+
+		try {
+			SnapshotFile.read(snapshot, "/conf/root.xml");
+			fail("Truncated snapshot read");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Truncated snapshot"));
+		}
+		// the file isn't held open or mapped after a read
+		assertTrue(snapshot.delete());
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * @(#)HierarchicalReaderBuilderTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class HierarchicalReaderBuilderTest extends TestCase {
+
+	public void testTreeBuilt() {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		builder.startNode("configuration");
+		builder.addAttribute("id", "general");
+		builder.addAttribute("plugin", "test");
+		for(int i = 0; i < 100; i++) {
+			builder.startNode(new String("property"));
+			builder.addAttribute(new String("key"), "key-" + i);
+			builder.setValue("value-" + i);
+			builder.endNode();
+		}
+		IHierarchicalReader root = builder.endNode();
+		assertFalse(builder.isBuilding());
+
+		assertEquals("configuration", root.getNodeName());
+		assertEquals(2, root.getAttributeCount());
+		assertEquals("general", root.getAttributeValue("id"));
+		assertNull(root.getAttributeValue("missing"));
+		Iterator<String> names = root.getAttributeNames();
+		assertEquals("id", names.next());
+		assertEquals("plugin", names.next());
+		assertFalse(names.hasNext());
+
+		List<IHierarchicalReader> children = root.getChildren();
+		assertEquals(100, children.size());
+		for(int i = 0; i < 100; i++) {
+			IHierarchicalReader child = children.get(i);
+			assertEquals("key-" + i, child.getAttributeValue("key"));
+			assertEquals("value-" + i, child.getValue());
+			assertFalse(child.hasChildren());
+			assertTrue(child.getChildren().isEmpty());
+		}
+		// names are shared by all the nodes
+		assertSame(children.get(0).getNodeName(), children.get(99).getNodeName());
+		assertSame(children.get(0).getAttributeNames().next(), children.get(99).getAttributeNames().next());
+	}
+
+	public void testTextAccumulated() {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		char[] text = "  first  second  ".toCharArray();
+		builder.startNode("root");
+		builder.appendValue(text, 0, 2);
+		builder.startNode("child");
+		builder.appendValue(text, 2, 5);
+		builder.appendValue(text, 7, 8);
+		builder.endNode();
+		builder.startNode("blank");
+		builder.appendValue(text, 0, 2);
+		builder.appendValue(text, 15, 2);
+		builder.endNode();
+		builder.appendValue(text, 0, 2);
+		IHierarchicalReader root = builder.endNode();
+
+		assertNull(root.getValue());
+		assertEquals("first  second", root.getChildren().get(0).getValue());
+		assertEquals("    ", root.getChildren().get(1).getValue());
+	}
+
+	public void testBuilderReused() {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		builder.startNode("broken");
+		builder.startNode("child");
+		builder.addAttribute("name", "value");
+		builder.reset();
+
+		builder.startNode("root");
+		IHierarchicalReader root = builder.endNode();
+		assertEquals("root", root.getNodeName());
+		assertEquals(0, root.getAttributeCount());
+		assertFalse(root.hasChildren());
+
+		try {
+			builder.endNode();
+			fail("No node open");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
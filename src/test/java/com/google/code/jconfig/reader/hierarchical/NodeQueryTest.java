@@ -0,0 +1,113 @@
+/*
+ * @(#)NodeQueryTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.hierarchical;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class NodeQueryTest extends TestCase {
+
+	private static final NodeQuery PORT = NodeQuery.compile("servers/server[@name='s7']/port");
+
+	public void testCompactTree() {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		builder.startNode("configuration");
+		builder.startNode("servers");
+		for(int i = 0; i < 20; i++) {
+			builder.startNode("server");
+			builder.addAttribute("name", "s" + i);
+			builder.addAttribute("zone", (i % 2 == 0)? "even" : "odd");
+			builder.startNode("port");
+			builder.setValue(String.valueOf(8000 + i));
+			builder.endNode();
+			builder.endNode();
+		}
+		builder.startNode("backup");
+		builder.endNode();
+		builder.endNode();
+		assertQueries(builder.endNode());
+	}
+
+	public void testMutableTree() {
+		HierarchicalReader servers = new HierarchicalReader();
+		servers.setNodeName("servers");
+		for(int i = 0; i < 20; i++) {
+			HierarchicalReader port = new HierarchicalReader();
+			port.setNodeName("port");
+			port.setValue(String.valueOf(8000 + i));
+			HierarchicalReader server = new HierarchicalReader();
+			server.setNodeName("server");
+			server.addAttribute("name", "s" + i);
+			server.addAttribute("zone", (i % 2 == 0)? "even" : "odd");
+			server.addChild(port);
+			servers.addChild(server);
+		}
+		HierarchicalReader backup = new HierarchicalReader();
+		backup.setNodeName("backup");
+		servers.addChild(backup);
+		HierarchicalReader root = new HierarchicalReader();
+		root.setNodeName("configuration");
+		root.addChild(servers);
+		assertQueries(root);
+	}
+
+	public void testInvalidQueries() {
+		assertInvalid("");
+		assertInvalid("servers/");
+		assertInvalid("server[@name='a'");
+		assertInvalid("server[@name=a]");
+		assertInvalid("server[0]");
+		assertInvalid("server[@]");
+		assertInvalid("server]");
+		assertEquals("a/*[@b=\"c\"][2]", NodeQuery.compile("a/*[@b=\"c\"][2]").toString());
+	}
+
+	private void assertQueries(IHierarchicalReader root) {
+		assertEquals("8007", PORT.selectValue(root));
+		assertEquals(20, NodeQuery.compile("servers/server").select(root).size());
+		assertEquals(21, NodeQuery.compile("servers/*").select(root).size());
+		assertEquals(20, NodeQuery.compile("servers/*[@name]").select(root).size());
+		assertEquals(20, NodeQuery.compile("*/*/port").select(root).size());
+
+		List<IHierarchicalReader> odd = NodeQuery.compile("servers/server[@zone='odd']").select(root);
+		assertEquals(10, odd.size());
+		assertEquals("s1", odd.get(0).getAttributeValue("name"));
+		assertEquals("s19", odd.get(9).getAttributeValue("name"));
+		assertEquals("s5", NodeQuery.compile("servers/server[@zone='odd'][3]").selectFirst(root).getAttributeValue("name"));
+		assertEquals("s2", NodeQuery.compile("servers/server[3]").selectFirst(root).getAttributeValue("name"));
+		assertEquals("backup", NodeQuery.compile("servers/*[21]").selectFirst(root).getNodeName());
+
+		assertTrue(NodeQuery.compile("servers/server[@name='s7'][2]").select(root).isEmpty());
+		assertTrue(NodeQuery.compile("servers/server[@name='none']/port").select(root).isEmpty());
+		assertNull(NodeQuery.compile("clients/client").selectFirst(root));
+		assertNull(NodeQuery.compile("servers/backup/port").selectValue(root));
+	}
+
+	private void assertInvalid(String expression) {
+		try {
+			NodeQuery.compile(expression);
+			fail("Invalid query compiled: " + expression);
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid query <" + expression + ">"));
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * @(#)PluginExecutionServiceTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.reader.plugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.annotation.Cacheable;
+import com.google.code.jconfig.annotation.ThreadSafe;
+import com.google.code.jconfig.exception.ConfigurationParsingException;
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReader;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+
+public class PluginExecutionServiceTest extends TestCase {
+
+	private static final int BUILDS = 4;
+
+	private static AtomicInteger running = new AtomicInteger();
+	private static CountDownLatch release = new CountDownLatch(0);
+	private static AtomicInteger maxRunning = new AtomicInteger();
+
+	@Override
+	protected void setUp() throws Exception {
+		running.set(0);
+		maxRunning.set(0);
+		PluginExecutionService.setPoolSize(BUILDS);
+		PluginExecutionService.shutdown();
+	}
+
+	public void testPluginBuildsOneAtATime() throws Exception {
+		buildAll(SlowPlugin.class.getName());
+		assertEquals(1, maxRunning.get());
+	}
+
+	public void testThreadSafePluginBuildsInParallel() throws Exception {
+		buildAll(ThreadSafeSlowPlugin.class.getName());
+		assertTrue("Max running: " + maxRunning.get(), maxRunning.get() > 1);
+	}
+
+	public void testWaitingBuildsDontHoldThreads() throws Exception {
+		release = new CountDownLatch(1);
+		try {
+			List<Future<Object>> blocked = new ArrayList<Future<Object>>();
+			for(int i = 0; i <= BUILDS; i++) {
+				blocked.add(PluginExecutionService.build(BlockingPlugin.class.getName(), "id-" + i, "test.xml", new HierarchicalReader()));
+			}
+			Future<Object> other = PluginExecutionService.build(ThreadSafeSlowPlugin.class.getName(), "other", "test.xml", new HierarchicalReader());
+			assertEquals("built", other.get(5, TimeUnit.SECONDS));
+			assertFalse(blocked.get(BUILDS).isDone());
+
+			release.countDown();
+			for (Future<Object> aBuild : blocked) {
+				assertEquals("built", PluginExecutionService.getConfiguration(aBuild));
+			}
+		} finally {
+			release.countDown();
+		}
+	}
+
+	public void testFailureReported() throws Exception {
+		Future<Object> build = PluginExecutionService.build(FailingPlugin.class.getName(), "failing", "test.xml", new HierarchicalReader());
+		try {
+			PluginExecutionService.getConfiguration(build);
+			fail("Failure not reported");
+		} catch (ConfigurationParsingException e) {
+			assertEquals("broken", e.getMessage());
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	private void buildAll(String pluginClass) throws Exception {
+		List<Future<Object>> builds = new ArrayList<Future<Object>>();
+		for(int i = 0; i < BUILDS; i++) {
+			builds.add(PluginExecutionService.build(pluginClass, "id-" + i, "test.xml", new HierarchicalReader()));
+		}
+		for (Future<Object> aBuild : builds) {
+			assertEquals("built", PluginExecutionService.getConfiguration(aBuild));
+		}
+	}
+
+	@Cacheable
+	public static class SlowPlugin implements IConfigurationPlugin<String> {
+
+		public String readConfiguration(IHierarchicalReader reader) {
+			int current = running.incrementAndGet();
+			int max = maxRunning.get();
+			while( (current > max) && !maxRunning.compareAndSet(max, current) ) {
+				max = maxRunning.get();
+			}
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			return "built";
+		}
+	}
+
+	@ThreadSafe
+	public static class ThreadSafeSlowPlugin extends SlowPlugin {
+
+	}
+
+	public static class BlockingPlugin implements IConfigurationPlugin<String> {
+
+		public String readConfiguration(IHierarchicalReader reader) {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "built";
+		}
+	}
+
+	public static class FailingPlugin implements IConfigurationPlugin<String> {
+
+		public String readConfiguration(IHierarchicalReader reader) {
+			throw new IllegalStateException("broken");
+		}
+	}
+}
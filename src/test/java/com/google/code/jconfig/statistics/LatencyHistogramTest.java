@@ -0,0 +1,60 @@
+/*
+ * @(#)LatencyHistogramTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+
+	public void testCountersAndPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(long time = 1; time <= 1000; time++) {
+			histogram.record(time);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500, histogram.getTotal());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500, histogram.getAverage());
+
+		long median = histogram.getPercentile(50);
+		assertTrue("median " + median, (median >= 500) && (median <= 625));
+		long p99 = histogram.getPercentile(99);
+		assertTrue("p99 " + p99, (p99 >= 990) && (p99 <= 1000));
+		assertEquals(1000, histogram.getPercentile(100));
+	}
+
+	public void testEmptyAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(99));
+		assertEquals(0, histogram.getAverage());
+
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+		assertEquals(0, histogram.getPercentile(50));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(99));
+	}
+}
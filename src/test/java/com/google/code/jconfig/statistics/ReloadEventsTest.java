@@ -0,0 +1,42 @@
+/*
+ * @(#)ReloadEventsTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import junit.framework.TestCase;
+
+public class ReloadEventsTest extends TestCase {
+
+	public void testNoEventWithoutRecording() {
+		IReloadEvent[] events = new IReloadEvent[] {
+			ReloadEvents.fileRead("conf.xml"),
+			ReloadEvents.parse("conf.xml"),
+			ReloadEvents.pluginInvocation("conf.xml", "id", "a.Plugin"),
+			ReloadEvents.diff("conf.xml"),
+			ReloadEvents.clone("id", "a.Plugin"),
+			ReloadEvents.dispatch("id", "a.Listener")
+		};
+
+		for (IReloadEvent anEvent : events) {
+			assertSame(ReloadEvents.NO_EVENT, anEvent);
+			anEvent.commit();
+		}
+	}
+}
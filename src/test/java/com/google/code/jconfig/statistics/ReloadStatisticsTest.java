@@ -0,0 +1,88 @@
+/*
+ * @(#)ReloadStatisticsTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class ReloadStatisticsTest extends TestCase {
+
+	public void testCounters() {
+		ReloadStatistics statistics = new ReloadStatistics();
+		statistics.reloaded(100, 2);
+		statistics.reloaded(300, 1);
+		statistics.parseFailed();
+		statistics.readerAcquired(true);
+		statistics.readerAcquired(true);
+		statistics.readerAcquired(false);
+		statistics.diffed(10);
+		statistics.diffed(30);
+		statistics.cloned(7);
+		statistics.fileParsed("a.xml", 40);
+		statistics.fileParsed("a.xml", 60);
+		statistics.pluginInvoked("a.Plugin", 5);
+
+		assertEquals(2, statistics.getReloadCount());
+		assertEquals(300, statistics.getLastReloadTime());
+		assertEquals(300, statistics.getMaxReloadTime());
+		assertEquals(1, statistics.getLastChangedIds());
+		assertEquals(3, statistics.getTotalChangedIds());
+		assertEquals(1, statistics.getParseFailureCount());
+		assertEquals(2, statistics.getReaderPoolHits());
+		assertEquals(1, statistics.getReaderPoolMisses());
+		assertEquals(20, statistics.getAverageDiffTime());
+		assertEquals(7, statistics.getAverageCloneTime());
+		assertEquals(Long.valueOf(50), statistics.getAverageFileParseTimes().get("a.xml"));
+		assertEquals(Long.valueOf(5), statistics.getAveragePluginBuildTimes().get("a.Plugin"));
+	}
+
+	public void testReset() {
+		ReloadStatistics statistics = new ReloadStatistics();
+		statistics.reloaded(100, 2);
+		statistics.parseFailed();
+		statistics.readerAcquired(false);
+		statistics.fileParsed("a.xml", 40);
+		statistics.pluginInvoked("a.Plugin", 5);
+
+		statistics.reset();
+		assertEquals(0, statistics.getReloadCount());
+		assertEquals(0, statistics.getLastReloadTime());
+		assertEquals(0, statistics.getLastChangedIds());
+		assertEquals(0, statistics.getTotalChangedIds());
+		assertEquals(0, statistics.getParseFailureCount());
+		assertEquals(0, statistics.getReaderPoolMisses());
+		assertTrue(statistics.getAverageFileParseTimes().isEmpty());
+		assertTrue(statistics.getAveragePluginBuildTimes().isEmpty());
+	}
+
+	public void testRetainFiles() {
+		ReloadStatistics statistics = new ReloadStatistics();
+		statistics.fileParsed("a.xml", 40);
+		statistics.fileParsed("b.xml", 60);
+		statistics.fileParsed("c.xml", 80);
+
+		statistics.retainFiles(Arrays.asList("a.xml", "c.xml", "d.xml"));
+		assertEquals(2, statistics.getFileParseTimes().size());
+		assertTrue(statistics.getFileParseTimes().containsKey("a.xml"));
+		assertTrue(statistics.getFileParseTimes().containsKey("c.xml"));
+	}
+}
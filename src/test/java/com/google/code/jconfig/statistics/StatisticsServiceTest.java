@@ -0,0 +1,70 @@
+/*
+ * @(#)StatisticsServiceTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+public class StatisticsServiceTest extends TestCase {
+
+	private MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+	@Override
+	protected void tearDown() throws Exception {
+		StatisticsService.unregisterMBean();
+		StatisticsService.getReloadStatistics().reset();
+	}
+
+	public void testRegistration() throws Exception {
+		ObjectName name = new ObjectName(StatisticsService.OBJECT_NAME);
+		StatisticsService.unregisterMBean();
+		assertFalse(server.isRegistered(name));
+
+		StatisticsService.registerMBean();
+		StatisticsService.registerMBean();
+		assertTrue(server.isRegistered(name));
+
+		StatisticsService.unregisterMBean();
+		assertFalse(server.isRegistered(name));
+	}
+
+	public void testCountersThroughJmx() throws Exception {
+		ObjectName name = new ObjectName(StatisticsService.OBJECT_NAME);
+		StatisticsService.registerMBean();
+		ReloadStatistics statistics = StatisticsService.getReloadStatistics();
+		statistics.reset();
+		statistics.reloaded(100, 3);
+		statistics.parseFailed();
+
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "ReloadCount"));
+		assertEquals(Long.valueOf(100), server.getAttribute(name, "LastReloadTime"));
+		assertEquals(Integer.valueOf(3), server.getAttribute(name, "LastChangedIds"));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "ParseFailureCount"));
+
+		server.invoke(name, "reset", null, null);
+		assertEquals(Long.valueOf(0), server.getAttribute(name, "ReloadCount"));
+		assertEquals(0, statistics.getParseFailureCount());
+	}
+}
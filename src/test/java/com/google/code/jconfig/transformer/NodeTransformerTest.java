@@ -0,0 +1,197 @@
+/*
+ * @(#)NodeTransformerTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.transformer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import com.google.code.jconfig.exception.NodeTransformationException;
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReader;
+import com.google.code.jconfig.reader.hierarchical.HierarchicalReaderBuilder;
+import com.google.code.jconfig.reader.hierarchical.IHierarchicalReader;
+
+public class NodeTransformerTest extends TestCase {
+
+	private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+
+	private IHierarchicalReader root;
+
+	@Override
+	protected void setUp() throws Exception {
+		HierarchicalReaderBuilder builder = new HierarchicalReaderBuilder();
+		builder.startNode("configuration");
+		builder.addAttribute("plugin", "p");
+		builder.addAttribute("id", "a < b & \"c\"\t\n");
+		builder.startNode("property");
+		builder.addAttribute("key", "k");
+		builder.setValue("v <&> \"'\u00e8\r");
+		builder.endNode();
+		builder.startNode("empty");
+		builder.endNode();
+		builder.startNode("mixed");
+		builder.setValue("text");
+		builder.startNode("leaf");
+		builder.setValue("x");
+		builder.endNode();
+		builder.endNode();
+		root = builder.endNode();
+	}
+
+	public void testCompactFormat() throws Exception {
+		NodeTransformer transformer = NodeTransformer.newInstance();
+		assertEquals(DECLARATION + "<configuration id=\"a &lt; b &amp; &quot;c&quot;&#9;&#10;\" plugin=\"p\">"
+		             + "<property key=\"k\">v &lt;&amp;&gt; \"'\u00e8&#13;</property><empty/><mixed>text<leaf>x</leaf></mixed>"
+		             + "</configuration>", transformer.doTransformation(root));
+	}
+
+	public void testPrettyFormat() throws Exception {
+		NodeTransformer transformer = NodeTransformer.newInstance();
+		transformer.omitXmlDeclaration(true);
+		transformer.prettyFormat(true);
+		assertEquals("<configuration id=\"a &lt; b &amp; &quot;c&quot;&#9;&#10;\" plugin=\"p\">\n"
+		             + "   <property key=\"k\">v &lt;&amp;&gt; \"'\u00e8&#13;</property>\n"
+		             + "   <empty/>\n"
+		             + "   <mixed>\n"
+		             + "      text\n"
+		             + "      <leaf>x</leaf>\n"
+		             + "   </mixed>\n"
+		             + "</configuration>\n", transformer.doTransformation(root));
+	}
+
+	public void testStreams() throws Exception {
+		NodeTransformer transformer = NodeTransformer.newInstance();
+		String expected = transformer.doTransformation(root);
+
+		StringWriter writer = new StringWriter();
+		transformer.doTransformation(root, writer);
+		assertEquals(expected, writer.toString());
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		transformer.doTransformation(root, stream);
+		assertEquals(expected, new String(stream.toByteArray(), "UTF-8"));
+
+		HierarchicalReader node = new HierarchicalReader();
+		node.setNodeName("node");
+		transformer.omitXmlDeclaration(true);
+		assertEquals("<node/>", transformer.doTransformation(node));
+	}
+
+	public void testIllegalCharacterRejected() throws Exception {
+		NodeTransformer transformer = NodeTransformer.newInstance();
+		HierarchicalReader node = new HierarchicalReader();
+		node.setNodeName("node");
+		node.setValue("a\u0001b");
+		try {
+			transformer.doTransformation(node);
+			fail("Control character written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Character 0x1 not allowed in xml.", e.getMessage());
+		}
+
+		node.setValue("a\uFFFFb");
+		try {
+			transformer.doTransformation(node, new StringWriter());
+			fail("Non character written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Character 0xffff not allowed in xml.", e.getMessage());
+		}
+
+		node.setValue("a\uD800b");
+		try {
+			transformer.doTransformation(node);
+			fail("Lone high surrogate written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Character 0xd800 not allowed in xml.", e.getMessage());
+		}
+
+		node.setValue("a\uDC00");
+		try {
+			transformer.doTransformation(node);
+			fail("Lone low surrogate written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Character 0xdc00 not allowed in xml.", e.getMessage());
+		}
+
+		transformer.omitXmlDeclaration(true);
+		node.setValue("\uD83D\uDE00<");
+		assertEquals("<node>\uD83D\uDE00&lt;</node>", transformer.doTransformation(node));
+	}
+
+	public void testIllegalNameRejected() throws Exception {
+		NodeTransformer transformer = NodeTransformer.newInstance();
+		transformer.omitXmlDeclaration(true);
+		HierarchicalReader node = new HierarchicalReader();
+		node.setNodeName("1node");
+		try {
+			transformer.doTransformation(node);
+			fail("Illegal element name written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Name <1node> not allowed in xml.", e.getMessage());
+		}
+
+		node.setNodeName("node");
+		node.addAttribute("a b", "value");
+		try {
+			transformer.doTransformation(node);
+			fail("Illegal attribute name written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Name <a b> not allowed in xml.", e.getMessage());
+		}
+
+		node = new HierarchicalReader();
+		try {
+			transformer.doTransformation(node);
+			fail("Missing element name written");
+		} catch (NodeTransformationException e) {
+			assertEquals("Empty name not allowed in xml.", e.getMessage());
+		}
+
+		node.setNodeName("ns:n\u00E9-1.x_");
+		node.addAttribute("xml:lang", "it");
+		assertEquals("<ns:n\u00E9-1.x_ xml:lang=\"it\"/>", transformer.doTransformation(node));
+	}
+
+	public void testDefaultStreams() throws Exception {
+		final NodeTransformer delegate = NodeTransformer.newInstance();
+		INodeTransformer transformer = new INodeTransformer() {
+			public void omitXmlDeclaration(boolean value) {
+				delegate.omitXmlDeclaration(value);
+			}
+			public void prettyFormat(boolean value) {
+				delegate.prettyFormat(value);
+			}
+			public String doTransformation(IHierarchicalReader root) throws NodeTransformationException {
+				return delegate.doTransformation(root);
+			}
+		};
+		String expected = delegate.doTransformation(root);
+
+		StringWriter writer = new StringWriter();
+		transformer.doTransformation(root, writer);
+		assertEquals(expected, writer.toString());
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		transformer.doTransformation(root, stream);
+		assertEquals(expected, new String(stream.toByteArray(), "UTF-8"));
+	}
+}
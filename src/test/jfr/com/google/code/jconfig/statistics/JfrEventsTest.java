@@ -0,0 +1,65 @@
+/*
+ * @(#)JfrEventsTest.java          Data: 18/ott/2026
+ *
+ *
+ * Copyright 2011 Gabriele Fedeli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.google.code.jconfig.statistics;
+
+import java.io.File;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+public class JfrEventsTest extends TestCase {
+
+	public void testEventsRecorded() throws Exception {
+		File dump = File.createTempFile("jconfig", ".jfr");
+		dump.deleteOnExit();
+		Recording recording = new Recording();
+		try {
+			recording.enable("com.google.code.jconfig.FileRead");
+			recording.enable("com.google.code.jconfig.PluginInvocation");
+			recording.disable("com.google.code.jconfig.Diff");
+			recording.start();
+
+			IReloadEvent event = ReloadEvents.fileRead("conf.xml");
+			assertNotSame(ReloadEvents.NO_EVENT, event);
+			event.commit();
+			ReloadEvents.pluginInvocation("conf.xml", "id", "a.Plugin").commit();
+			assertSame(ReloadEvents.NO_EVENT, ReloadEvents.diff("conf.xml"));
+
+			recording.stop();
+			recording.dump(dump.toPath());
+		} finally {
+			recording.close();
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(dump.toPath());
+		assertEquals(2, events.size());
+		for (RecordedEvent anEvent : events) {
+			assertEquals("conf.xml", anEvent.getString("path"));
+			if( anEvent.getEventType().getName().endsWith("PluginInvocation") ) {
+				assertEquals("id", anEvent.getString("id"));
+				assertEquals("a.Plugin", anEvent.getString("pluginClass"));
+			}
+		}
+	}
+}